@@ -0,0 +1,69 @@
+package com.springboot.blog.cache;
+
+import com.springboot.blog.repository.PostRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+//recounts the denormalized posts.comment_count in the background. the count is kept in the transaction of every
+//comment write, so it only drifts from writes that bypass CommentServiceImpl (scripts, manual fixes) or from a recount
+//racing a comment write, which the next pass corrects. id ranges are updated one transaction each, so no pass holds
+//locks on the whole table, and only posts whose count is wrong are written.
+//on a database the column was just added to, every post starts at 0 until recounted: that backfill runs once, in the
+//background after startup, and only when a post with comments still has a count of 0.
+@Component
+public class CommentCountReconciler {
+    private static final Logger logger = LoggerFactory.getLogger(CommentCountReconciler.class);
+    private static final long BATCH_SIZE = 1000;
+
+    private final PostRepository postRepository;
+    private final Counter corrected;
+
+    public CommentCountReconciler(PostRepository postRepository, MeterRegistry meterRegistry) {
+        this.postRepository = postRepository;
+        // exposes posts.comment.count.corrected under /actuator/metrics
+        this.corrected = Counter.builder("posts.comment.count.corrected")
+                .description("Posts whose stored comment count was wrong and has been recounted").register(meterRegistry);
+    }
+
+    //off the event thread, so readiness does not wait for a recount of the whole comments table
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Thread backfill = new Thread(this::backfillUncounted, "comment-count-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+    }
+
+    //recounts right away instead of an interval after startup, before a comment delete on an uncounted post can take
+    //its count below zero. drift in a counted table is left to the periodic reconcile
+    public void backfillUncounted() {
+        if (postRepository.findUncountedIds(Limit.of(1)).isEmpty()) {
+            return;
+        }
+        logger.info("Backfilling the comment count of every post");
+        reconcile();
+    }
+
+    @Scheduled(initialDelayString = "${app.comment-count.reconcile-ms:3600000}",
+            fixedDelayString = "${app.comment-count.reconcile-ms:3600000}")
+    public void reconcile() {
+        Long maxId = postRepository.findMaxId();
+        if (maxId == null) {
+            return;
+        }
+        long fixed = 0;
+        for (long afterId = 0; afterId < maxId; afterId += BATCH_SIZE) {
+            fixed += postRepository.reconcileCommentCounts(afterId, Math.min(afterId + BATCH_SIZE, maxId));
+        }
+        if (fixed > 0) {
+            corrected.increment(fixed);
+            logger.info("Corrected the comment count of {} posts", fixed);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.springboot.blog.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.function.Function;
+
+//claims of tokens whose signature has already been verified, keyed by the SHA-256 digest of the token so the
+//cache never holds the bearer tokens themselves. an entry expires when its token does, only valid tokens are cached.
+@Component
+public class JwtClaimsCache {
+    public static final String CACHE_NAME = "jwt-claims";
+
+    private final Cache<String, Claims> cache;
+
+    public JwtClaimsCache(@Value("${app.jwt-claims-cache.max-size:10000}") long maxSize, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        return nanosUntilExpiration(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return nanosUntilExpiration(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    //cached claims of the token, or the result of verifier (which must throw for an invalid token)
+    public Claims get(String token, Function<String, Claims> verifier) {
+        return cache.get(digest(token), key -> verifier.apply(token));
+    }
+
+    public void evict(String token) {
+        cache.invalidate(digest(token));
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static long nanosUntilExpiration(Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return 0;
+        }
+        return Math.max(0, expiration.getTime() - System.currentTimeMillis()) * 1_000_000;
+    }
+
+    private static String digest(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            //every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.springboot.blog.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.springboot.blog.payload.PostDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+//read-through cache of fully mapped posts, keyed by post id.
+//entries are evicted by size and by time since write, and must be invalidated by every write that changes the post or its comments.
+@Component
+public class PostCache {
+    public static final String CACHE_NAME = "posts";
+
+    private final Cache<Long, PostDTO> cache;
+
+    public PostCache(@Value("${app.post-cache.max-size:1000}") long maxSize,
+                     @Value("${app.post-cache.ttl-seconds:300}") long ttlSeconds,
+                     MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        // exposes cache.gets{result=hit|miss}, cache.evictions, cache.size under /actuator/metrics
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public PostDTO get(Long id, Function<Long, PostDTO> loader) {
+        return cache.get(id, loader);
+    }
+
+    public void evict(Long id) {
+        if (id != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
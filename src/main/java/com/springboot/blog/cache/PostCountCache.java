@@ -0,0 +1,44 @@
+package com.springboot.blog.cache;
+
+import com.springboot.blog.repository.PostRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//approximate number of posts for count-free listings.
+//the exact COUNT(*) runs in the background; writes in between adjust it so it only drifts by concurrent writes.
+@Component
+public class PostCountCache {
+    private static final long UNKNOWN = -1;
+
+    private final PostRepository postRepository;
+    private final AtomicLong count = new AtomicLong(UNKNOWN);
+
+    public PostCountCache(PostRepository postRepository) {
+        this.postRepository = postRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${app.post-count.refresh-ms:60000}")
+    public void refresh() {
+        count.set(postRepository.count());
+    }
+
+    //null until the first background refresh has completed
+    public Long get() {
+        long value = count.get();
+        return value == UNKNOWN ? null : value;
+    }
+
+    public void increment() {
+        count.updateAndGet(value -> value == UNKNOWN ? UNKNOWN : value + 1);
+    }
+
+    public void decrement() {
+        subtract(1);
+    }
+
+    public void subtract(long posts) {
+        count.updateAndGet(value -> value == UNKNOWN ? UNKNOWN : Math.max(0, value - posts));
+    }
+}
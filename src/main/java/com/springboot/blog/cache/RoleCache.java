@@ -0,0 +1,40 @@
+package com.springboot.blog.cache;
+
+import com.springboot.blog.entity.Role;
+import com.springboot.blog.repository.RoleRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//role name -> id. roles are seeded once at startup (before the app is ready) and never change afterwards, so the
+//ids are loaded then and role lookups on signup cost no query; a name missing from the cache is looked up once.
+@Component
+public class RoleCache {
+    private final RoleRepository roleRepository;
+    private final Map<String, Long> ids = new ConcurrentHashMap<>();
+
+    public RoleCache(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (Role role : roleRepository.findAll()) {
+            ids.put(role.getName(), role.getId());
+        }
+    }
+
+    public Long getId(String name) {
+        return ids.computeIfAbsent(name, roleName -> roleRepository.findByName(roleName)
+                .map(Role::getId)
+                .orElseThrow(() -> new IllegalStateException("Role " + roleName + " does not exist")));
+    }
+
+    //an uninitialised proxy: enough to write the users_roles row, never selects the role
+    public Role getReference(String name) {
+        return roleRepository.getReferenceById(getId(name));
+    }
+}
@@ -0,0 +1,119 @@
+package com.springboot.blog.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.springboot.blog.entity.RevokedToken;
+import com.springboot.blog.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+//ids (jti) of tokens revoked before their expiry. checking a token is a map lookup, no query; the revoked_tokens
+//table makes the list survive restarts and carries revocations between instances: each one polls it for the rows
+//revoked since its last poll, so a token revoked on one instance is refused by all of them within one poll interval.
+//refresh tokens live for days and are rare, so they are also checked against the table itself (isRevokedInStore).
+//an entry is dropped when its token expires, as the signature check rejects the token from then on anyway, so the
+//list holds no more than the tokens revoked within one token lifetime.
+@Component
+public class TokenDenylist {
+    //how far each poll reaches back before the previous one, for writes that commit late and for clock skew between
+    //the instances stamping revoked_at. rows read twice are simply put again
+    static final Duration POLL_OVERLAP = Duration.ofSeconds(60);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final Cache<String, Instant> revoked;
+    private volatile Instant lastPoll = Instant.now();
+
+    public TokenDenylist(RevokedTokenRepository revokedTokenRepository, MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        //no size bound: evicting a revocation would let its token back in
+        this.revoked = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Instant>() {
+                    @Override
+                    public long expireAfterCreate(String jti, Instant expiresAt, long currentTime) {
+                        return nanosUntil(expiresAt);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String jti, Instant expiresAt, long currentTime, long currentDuration) {
+                        return nanosUntil(expiresAt);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String jti, Instant expiresAt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        Gauge.builder("jwt.denylist.size", revoked, Cache::estimatedSize)
+                .description("Revoked tokens that have not expired yet").register(meterRegistry);
+    }
+
+    //before the first request is served, so no revoked token is accepted after a restart
+    @PostConstruct
+    public void load() {
+        Instant now = Instant.now();
+        for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(now)) {
+            revoked.put(token.getId(), token.getExpiresAt());
+        }
+        lastPoll = now;
+    }
+
+    //revocations made by the other instances since the last poll
+    @Scheduled(initialDelayString = "${app.jwt.denylist.poll-ms:5000}", fixedDelayString = "${app.jwt.denylist.poll-ms:5000}")
+    public void poll() {
+        Instant now = Instant.now();
+        for (RevokedToken token : revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(lastPoll.minus(POLL_OVERLAP), now)) {
+            revoked.put(token.getId(), token.getExpiresAt());
+        }
+        lastPoll = now;
+    }
+
+    public boolean isRevoked(String jti) {
+        return jti != null && revoked.getIfPresent(jti) != null;
+    }
+
+    //the in-memory list, then the table for a revocation another instance made since the last poll
+    public boolean isRevokedInStore(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        if (isRevoked(jti)) {
+            return true;
+        }
+        return revokedTokenRepository.findById(jti).map(token -> {
+            revoked.put(token.getId(), token.getExpiresAt());
+            return true;
+        }).orElse(false);
+    }
+
+    public void revoke(String jti, Instant expiresAt) {
+        Instant now = Instant.now();
+        if (!expiresAt.isAfter(now)) {
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(jti, expiresAt, now));
+        revoked.put(jti, expiresAt);
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.denylist.prune-ms:3600000}")
+    public void prune() {
+        revokedTokenRepository.deleteExpired(Instant.now());
+        revoked.cleanUp();
+    }
+
+    public long size() {
+        revoked.cleanUp();
+        return revoked.estimatedSize();
+    }
+
+    private static long nanosUntil(Instant expiresAt) {
+        return Math.max(0, expiresAt.toEpochMilli() - System.currentTimeMillis()) * 1_000_000;
+    }
+}
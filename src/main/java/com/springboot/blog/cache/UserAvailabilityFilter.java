@@ -0,0 +1,120 @@
+package com.springboot.blog.cache;
+
+import com.springboot.blog.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+
+//bloom filters of the taken usernames and emails, so availability checks made while typing a signup form can answer
+//"free" without a query. only a probable hit (taken, or a false positive) has to ask the database.
+//values are lowercased: the users table compares them case-insensitively, so "John" must make "john" a hit too.
+//until the filters are seeded at startup every check is a probable hit. users registered through another instance are
+//added by a refresh that reads the rows above the highest id seen so far (app.availability.refresh-ms), so a value
+//taken elsewhere is answered "free" for at most one refresh interval; registration itself still rejects it.
+@Component
+public class UserAvailabilityFilter {
+    private static final Logger logger = LoggerFactory.getLogger(UserAvailabilityFilter.class);
+    private static final int BATCH_SIZE = 1000;
+
+    private final UserRepository userRepository;
+    private final BloomFilter usernames;
+    private final BloomFilter emails;
+    private final Counter filtered;
+    private final Counter probableHits;
+    private volatile boolean ready;
+    //highest user id read from the table, guarded by this
+    private long lastSeenId;
+
+    public UserAvailabilityFilter(UserRepository userRepository,
+                                  @Value("${app.availability.expected-users:1000000}") long expectedUsers,
+                                  @Value("${app.availability.false-positive-rate:0.01}") double falsePositiveRate,
+                                  MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.usernames = new BloomFilter(expectedUsers, falsePositiveRate);
+        this.emails = new BloomFilter(expectedUsers, falsePositiveRate);
+        // exposes user.availability.filter.memory, .fpp, .insertions{field=username|email}
+        // and user.availability.checks{result=filtered|probable-hit} under /actuator/metrics
+        register(meterRegistry, "username", usernames);
+        register(meterRegistry, "email", emails);
+        this.filtered = Counter.builder("user.availability.checks").tag("result", "filtered")
+                .description("Availability checks answered from the bloom filter").register(meterRegistry);
+        this.probableHits = Counter.builder("user.availability.checks").tag("result", "probable-hit")
+                .description("Availability checks passed on to the database").register(meterRegistry);
+    }
+
+    private static void register(MeterRegistry meterRegistry, String field, BloomFilter filter) {
+        Gauge.builder("user.availability.filter.memory", filter, BloomFilter::memoryBytes).tag("field", field)
+                .baseUnit("bytes").description("Size of the bloom filter bit array").register(meterRegistry);
+        Gauge.builder("user.availability.filter.fpp", filter, BloomFilter::expectedFalsePositiveRate).tag("field", field)
+                .description("Expected false positive rate for the values added so far").register(meterRegistry);
+        Gauge.builder("user.availability.filter.insertions", filter, BloomFilter::insertions).tag("field", field)
+                .description("Values added to the bloom filter").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        addUsersSinceLastSeen();
+        ready = true;
+        logger.info("Seeded availability filters with {} users in {} ms, {} bytes each, {} hash functions, " +
+                        "expected false positive rate {}", usernames.insertions(), System.currentTimeMillis() - start,
+                usernames.memoryBytes(), usernames.hashCount(), usernames.expectedFalsePositiveRate());
+    }
+
+    //users registered since the last read, on this instance or any other
+    @Scheduled(initialDelayString = "${app.availability.refresh-ms:5000}", fixedDelayString = "${app.availability.refresh-ms:5000}")
+    public void refresh() {
+        if (ready) {
+            addUsersSinceLastSeen();
+        }
+    }
+
+    private synchronized void addUsersSinceLastSeen() {
+        List<UserRepository.UserIdentity> batch;
+        do {
+            batch = userRepository.findIdentitiesAfter(lastSeenId, Limit.of(BATCH_SIZE));
+            for (UserRepository.UserIdentity user : batch) {
+                add(user.getUsername(), user.getEmail());
+                lastSeenId = user.getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+    }
+
+    public void add(String username, String email) {
+        usernames.put(key(username));
+        emails.put(key(email));
+    }
+
+    //false means the username is definitely free, true that the database has to be asked
+    public boolean mightContainUsername(String username) {
+        return check(usernames, username);
+    }
+
+    public boolean mightContainEmail(String email) {
+        return check(emails, email);
+    }
+
+    private boolean check(BloomFilter filter, String value) {
+        if (ready && !filter.mightContain(key(value))) {
+            filtered.increment();
+            return false;
+        }
+        probableHits.increment();
+        return true;
+    }
+
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
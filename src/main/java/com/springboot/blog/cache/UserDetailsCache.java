@@ -0,0 +1,103 @@
+package com.springboot.blog.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//users loaded for authentication, cached under both username and email since either one can be used to log in.
+//keys are lowercased, as the lookup matches either identifier regardless of case.
+//concurrent misses for one key wait for a single load. entries expire after the ttl and must be invalidated
+//whenever a user's password or roles change. no lock is held across the database load: a lookup that sees an
+//invalidation happen while it ran drops what it cached, so a user loaded before an invalidation never outlives it.
+@Component
+public class UserDetailsCache {
+    public static final String CACHE_NAME = "user-details";
+
+    private final Cache<String, CachedUser> cache;
+    private final Timer loadTimer;
+    //bumped before every invalidation, a lookup compares it before and after caching
+    private final AtomicLong generation = new AtomicLong();
+
+    public UserDetailsCache(@Value("${app.user-cache.max-size:10000}") long maxSize,
+                            @Value("${app.user-cache.ttl-seconds:60}") long ttlSeconds,
+                            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        // exposes cache.gets{result=hit|miss}, cache.evictions, cache.size under /actuator/metrics
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        // the caffeine binder only times loads of loading caches, so misses are timed here
+        this.loadTimer = Timer.builder("user.details.load")
+                .description("Time to load a user from the database on a user details cache miss")
+                .register(meterRegistry);
+    }
+
+    //a fresh UserDetails on every call: authentication erases the password of the instance it is given
+    public UserDetails get(String usernameOrEmail, Function<String, CachedUser> loader) {
+        long started = generation.get();
+        String key = normalize(usernameOrEmail);
+        CachedUser user = cache.get(key, k -> loadTimer.record(() -> loader.apply(usernameOrEmail)));
+        //the other identifier of the same user shares the entry
+        cache.asMap().putIfAbsent(normalize(user.username()), user);
+        cache.asMap().putIfAbsent(normalize(user.email()), user);
+        if (generation.get() != started) {
+            //an invalidation may have run between the load and the puts above
+            cache.asMap().remove(key, user);
+            cache.asMap().remove(normalize(user.username()), user);
+            cache.asMap().remove(normalize(user.email()), user);
+        }
+        return user.toUserDetails();
+    }
+
+    //also drops the other identifier of whatever was cached, e.g. the email a user had before changing it
+    public void invalidate(String username, String email) {
+        generation.incrementAndGet();
+        for (String key : new String[]{normalize(username), normalize(email)}) {
+            CachedUser removed = cache.asMap().remove(key);
+            if (removed != null) {
+                cache.invalidate(normalize(removed.username()));
+                cache.invalidate(normalize(removed.email()));
+            }
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private static String normalize(String usernameOrEmail) {
+        return usernameOrEmail.toLowerCase(Locale.ROOT);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    //immutable copy of what authentication needs, the entity itself is never cached
+    public record CachedUser(String username, String email, String password, List<String> authorities) {
+
+        UserDetails toUserDetails() {
+            return new User(email, password, authorities.stream()
+                    .map(SimpleGrantedAuthority::new)
+                    .collect(Collectors.toSet()));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.springboot.blog.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.springboot.blog.entity.Category;
+import com.springboot.blog.entity.Role;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.CacheSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+//hibernate second-level cache for the reference data (categories, roles) and the query cache, held in caffeine
+//through jcache. every region is created here with its own size and ttl (app.l2-cache.*, override them per profile),
+//a region hibernate asks for that is missing here fails startup instead of growing unbounded.
+//the cache is per instance: writes through hibernate keep it in sync, the ttl bounds how stale another instance's
+//writes can leave it.
+@Configuration
+public class HibernateCacheConfig {
+    public static final String QUERY_RESULTS_REGION = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    public static final String TIMESTAMPS_REGION = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    //a provider of its own, so every application context gets a fresh manager instead of the shared default one
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${app.l2-cache.categories.max-size:1000}") long categoriesMaxSize,
+                                              @Value("${app.l2-cache.categories.ttl-seconds:600}") long categoriesTtlSeconds,
+                                              @Value("${app.l2-cache.roles.max-size:100}") long rolesMaxSize,
+                                              @Value("${app.l2-cache.roles.ttl-seconds:3600}") long rolesTtlSeconds,
+                                              @Value("${app.l2-cache.query.max-size:1000}") long queryMaxSize,
+                                              @Value("${app.l2-cache.query.ttl-seconds:600}") long queryTtlSeconds,
+                                              MeterRegistry meterRegistry) {
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager();
+        createRegion(cacheManager, Category.CACHE_REGION, OptionalLong.of(categoriesMaxSize), OptionalLong.of(categoriesTtlSeconds), meterRegistry);
+        createRegion(cacheManager, Role.CACHE_REGION, OptionalLong.of(rolesMaxSize), OptionalLong.of(rolesTtlSeconds), meterRegistry);
+        createRegion(cacheManager, QUERY_RESULTS_REGION, OptionalLong.of(queryMaxSize), OptionalLong.of(queryTtlSeconds), meterRegistry);
+        //last write time per table, one entry each. evicting one would let stale query results through, so no bound
+        createRegion(cacheManager, TIMESTAMPS_REGION, OptionalLong.empty(), OptionalLong.empty(), meterRegistry);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateSecondLevelCache(CacheManager hibernateCacheManager,
+                                                                   @Value("${app.l2-cache.enabled:true}") boolean enabled) {
+        return properties -> {
+            properties.put(CacheSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(CacheSettings.USE_QUERY_CACHE, enabled);
+            if (enabled) {
+                properties.put(CacheSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+                properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+                properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            }
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String region, OptionalLong maxSize, OptionalLong ttlSeconds,
+                                     MeterRegistry meterRegistry) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>()
+                .setMaximumSize(maxSize)
+                .setExpireAfterWrite(ttlSeconds.isPresent()
+                        ? OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds.getAsLong()))
+                        : OptionalLong.empty())
+                .setNativeStatisticsEnabled(true);
+        javax.cache.Cache<Object, Object> cache = cacheManager.createCache(region, configuration);
+        // exposes cache.gets{cache=hibernate.<region>,result=hit|miss}, cache.evictions, cache.size under /actuator/metrics
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.unwrap(Cache.class), "hibernate." + region);
+    }
+}
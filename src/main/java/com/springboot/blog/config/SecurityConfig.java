@@ -1,9 +1,16 @@
 package com.springboot.blog.config;
 
+import com.springboot.blog.security.BCryptCalibration;
+import com.springboot.blog.security.BoundedPasswordEncoder;
 import com.springboot.blog.security.JwtAuthenticationEntryPoint;
 import com.springboot.blog.security.JwtAuthenticationFilter;
+import com.springboot.blog.security.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
 import io.swagger.v3.oas.annotations.security.SecurityScheme;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -27,18 +34,33 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
         scheme = "bearer"
 )
 public class SecurityConfig {
+    private static final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
+
     private UserDetailsService userDetailsService;
     private JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private JwtAuthenticationFilter authenticationFilter;
+    private RateLimitFilter rateLimitFilter;
 
-    public SecurityConfig(UserDetailsService userDetailsService, JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint, JwtAuthenticationFilter authenticationFilter) {
+    public SecurityConfig(UserDetailsService userDetailsService, JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint, JwtAuthenticationFilter authenticationFilter,
+                          RateLimitFilter rateLimitFilter) {
         this.userDetailsService = userDetailsService;
         this.jwtAuthenticationEntryPoint = jwtAuthenticationEntryPoint;
         this.authenticationFilter = authenticationFilter;
+        this.rateLimitFilter = rateLimitFilter;
     }
+    //bcrypt runs on its own bounded pool, strength 0 calibrates it at startup to the target hash time
     @Bean
-    public static PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    public static PasswordEncoder passwordEncoder(@Value("${app.password-hashing.bcrypt-strength:0}") int strength,
+                                                  @Value("${app.password-hashing.target-ms:250}") long targetMillis,
+                                                  @Value("${app.password-hashing.threads:2}") int threads,
+                                                  @Value("${app.password-hashing.queue-capacity:50}") int queueCapacity,
+                                                  @Value("${app.password-hashing.timeout-ms:3000}") long timeoutMillis,
+                                                  MeterRegistry meterRegistry){
+        if(strength <= 0){
+            strength = BCryptCalibration.strengthFor(targetMillis);
+            logger.info("Calibrated BCrypt strength {} for a {} ms target", strength, targetMillis);
+        }
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), threads, queueCapacity, timeoutMillis, meterRegistry);
     }
 
     @Bean
@@ -56,6 +78,8 @@ public class SecurityConfig {
                         .exceptionHandling(exception -> exception.authenticationEntryPoint(jwtAuthenticationEntryPoint))
                         .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
         http.addFilterBefore(authenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        //after the jwt filter so authenticated requests are also limited per subject
+        http.addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
         return http.build();
     }
 
@@ -1,15 +1,23 @@
 package com.springboot.blog.controller;
 
+import com.springboot.blog.exception.BlogAPIException;
+import com.springboot.blog.payload.AvailabilityDTO;
 import com.springboot.blog.payload.JwtAuthResponse;
 import com.springboot.blog.payload.LoginDTO;
+import com.springboot.blog.payload.RefreshTokenDTO;
 import com.springboot.blog.payload.RegisterDTO;
 import com.springboot.blog.service.AuthService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -23,14 +31,10 @@ public class AuthController {
     @PostMapping(value = {"/login", "/signin"})
     public ResponseEntity<JwtAuthResponse> login(@Valid @RequestBody LoginDTO loginDTO){
         try {
-            String token = authService.login(loginDTO);
-
-            JwtAuthResponse jwtAuthResponse = new JwtAuthResponse();
-            jwtAuthResponse.setAccessToken(token);
-
-            return ResponseEntity.ok(jwtAuthResponse);
+            return ResponseEntity.ok(authService.login(loginDTO));
         }
-        catch (RuntimeException ex) {
+        //only bad credentials are a 401, an overloaded password encoder's 503 goes to the exception handler
+        catch (AuthenticationException ex) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
         }
     }
@@ -41,8 +45,33 @@ public class AuthController {
             String response = authService.register(registerDTO);
             return new ResponseEntity<>(response, HttpStatus.CREATED);
         }
-        catch (RuntimeException ex){
-           return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+        catch (BlogAPIException ex){
+            //a taken username or email, anything else (e.g. the 503 of an overloaded password encoder) is rethrown
+            if(ex.getStatus() != HttpStatus.BAD_REQUEST){
+                throw ex;
+            }
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
         }
     }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtAuthResponse> refresh(@Valid @RequestBody RefreshTokenDTO refreshTokenDTO){
+        return ResponseEntity.ok(authService.refresh(refreshTokenDTO.getRefreshToken()));
+    }
+
+    //revokes the refresh token, and the access token when it is sent as usual
+    @PostMapping("/logout")
+    public ResponseEntity<String> logout(@Valid @RequestBody RefreshTokenDTO refreshTokenDTO,
+                                         @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization){
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        authService.logout(refreshTokenDTO.getRefreshToken(), accessToken);
+        return ResponseEntity.ok("logged out successfully");
+    }
+
+    //called as the signup form is typed in, answers for whichever of the two is given
+    @GetMapping("/availability")
+    public ResponseEntity<AvailabilityDTO> checkAvailability(@RequestParam(required = false) String username,
+                                                             @RequestParam(required = false) String email){
+        return ResponseEntity.ok(authService.checkAvailability(username, email));
+    }
 }
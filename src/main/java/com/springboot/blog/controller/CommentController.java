@@ -1,14 +1,14 @@
 package com.springboot.blog.controller;
 
 import com.springboot.blog.payload.CommentDTO;
+import com.springboot.blog.payload.CommentResponse;
 import com.springboot.blog.service.CommentService;
+import com.springboot.blog.utils.AppConstants;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api")
 public class CommentController {
@@ -23,9 +23,12 @@ public class CommentController {
         return new ResponseEntity<>(commentService.createComment(postId,commentDTO), HttpStatus.CREATED);
     }
 
+    //pages in comment id order, the next page starts after the "next" id of the previous one
     @GetMapping("/posts/{postId}/comments")
-    public List<CommentDTO> getCommentsByPostId(@PathVariable(name = "postId") long postId){
-        return commentService.getCommentsByPostId(postId);
+    public CommentResponse getCommentsByPostId(@PathVariable(name = "postId") long postId,
+                                               @RequestParam(name = "cursor", required = false) Long cursor,
+                                               @RequestParam(name = "pageSize", defaultValue = AppConstants.DEFAULT_COMMENT_PAGE_SIZE, required = false) int pageSize){
+        return commentService.getCommentsByPostId(postId, cursor, pageSize);
     }
 
     @GetMapping("/posts/{postId}/comments/{commentId}")
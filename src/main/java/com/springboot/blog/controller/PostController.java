@@ -1,5 +1,6 @@
 package com.springboot.blog.controller;
 
+import com.springboot.blog.exception.BlogAPIException;
 import com.springboot.blog.payload.PostDTO;
 import com.springboot.blog.payload.PostResponse;
 import com.springboot.blog.service.PostService;
@@ -58,7 +59,38 @@ public class PostController {
     public PostResponse getAllPosts(@RequestParam(name = "pageNo", defaultValue = AppConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
                                     @RequestParam(name = "pageSize", defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
                                     @RequestParam(name = "sortBy", defaultValue = AppConstants.DEFAULT_SORT_BY, required = false) String sortBy,
-                                    @RequestParam(name = "sortDir", defaultValue = AppConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir){
+                                    @RequestParam(name = "sortDir", defaultValue = AppConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir,
+                                    @RequestParam(name = "paging", defaultValue = AppConstants.DEFAULT_PAGING_MODE, required = false) String paging,
+                                    @RequestParam(name = "cursor", required = false) String cursor,
+                                    @RequestParam(name = "withTotal", defaultValue = "false", required = false) boolean withTotal,
+                                    @RequestParam(name = "view", defaultValue = AppConstants.DEFAULT_VIEW, required = false) String view,
+                                    @RequestParam(name = "comments", defaultValue = AppConstants.ALL_COMMENTS, required = false) String comments,
+                                    @RequestParam(name = "latestComments", defaultValue = "${app.post.latest-comments.list:3}", required = false) int latestComments){
+        boolean cursorPaging = AppConstants.CURSOR_PAGING_MODE.equalsIgnoreCase(paging) || cursor != null;
+        boolean slicePaging = AppConstants.SLICE_PAGING_MODE.equalsIgnoreCase(paging);
+        //the summary projection and the latest comments are only paged by offset, cursor and slice pages are full posts
+        if((cursorPaging || slicePaging) && AppConstants.SUMMARY_VIEW.equalsIgnoreCase(view)){
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST, "view=summary is only supported with paging=offset");
+        }
+        if((cursorPaging || slicePaging) && AppConstants.LATEST_COMMENTS.equalsIgnoreCase(comments)){
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST, "comments=latest is only supported with paging=offset");
+        }
+        //paging=cursor seeks from the "next" cursor of the previous page instead of using pageNo
+        if(cursorPaging){
+            return postService.getPostsByCursor(cursor,pageSize,sortBy,sortDir);
+        }
+        //paging=slice skips the COUNT(*), withTotal adds the approximate total
+        if(slicePaging){
+            return postService.getAllPostsSlice(pageNo,pageSize,sortBy,sortDir,withTotal);
+        }
+        //view=summary returns id, title, description, categoryId and commentCount only
+        if(AppConstants.SUMMARY_VIEW.equalsIgnoreCase(view)){
+            return postService.getAllPostSummaries(pageNo,pageSize,sortBy,sortDir);
+        }
+        //comments=latest embeds each post's newest latestComments comments instead of all of them, plus commentCount
+        if(AppConstants.LATEST_COMMENTS.equalsIgnoreCase(comments)){
+            return postService.getAllPostsWithLatestComments(pageNo,pageSize,sortBy,sortDir,latestComments);
+        }
         return postService.getAllPosts(pageNo,pageSize,sortBy,sortDir);
     }
 
@@ -72,7 +104,13 @@ public class PostController {
             description = "Http Status 200 SUCCESS"
     )
     @GetMapping("/{id}")
-    public ResponseEntity<PostDTO> getPostById(@PathVariable(name = "id") long id){
+    public ResponseEntity<PostDTO> getPostById(@PathVariable(name = "id") long id,
+                                               @RequestParam(name = "comments", defaultValue = AppConstants.ALL_COMMENTS, required = false) String comments,
+                                               @RequestParam(name = "latestComments", defaultValue = "${app.post.latest-comments.by-id:10}", required = false) int latestComments){
+        //comments=latest embeds the newest latestComments comments instead of all of them, plus commentCount
+        if(AppConstants.LATEST_COMMENTS.equalsIgnoreCase(comments)){
+            return ResponseEntity.ok(postService.getPostByIdWithLatestComments(id, latestComments));
+        }
         return ResponseEntity.ok(postService.getPostById(id));
     }
 
@@ -115,15 +153,52 @@ public class PostController {
     }
 
     @GetMapping("/category/{id}")
-    public ResponseEntity<List<PostDTO>> getPostsByCategory(@PathVariable(name = "id") Long categoryId){
-        List<PostDTO> postDTOS = postService.getPostsByCategory(categoryId);
+    public ResponseEntity<List<PostDTO>> getPostsByCategory(@PathVariable(name = "id") Long categoryId,
+                                                            @RequestParam(name = "view", defaultValue = AppConstants.DEFAULT_VIEW, required = false) String view){
+        List<PostDTO> postDTOS = AppConstants.SUMMARY_VIEW.equalsIgnoreCase(view)
+                ? postService.getPostSummariesByCategory(categoryId)
+                : postService.getPostsByCategory(categoryId);
         return ResponseEntity.ok(postDTOS);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<PostDTO>> searchPosts(@RequestParam("keyword") String keyword){
-        List<PostDTO> postDTOS = postService.searchPost(keyword);
+    public ResponseEntity<List<PostDTO>> searchPosts(@RequestParam("keyword") String keyword,
+                                                     @RequestParam(name = "view", defaultValue = AppConstants.DEFAULT_VIEW, required = false) String view,
+                                                     @RequestParam(name = "pageNo", required = false) Integer pageNo,
+                                                     @RequestParam(name = "pageSize", required = false) Integer pageSize,
+                                                     @RequestParam(name = "limit", required = false) Integer limit){
+        //limit returns the top hits in one page
+        if(limit != null && pageSize == null){
+            pageNo = 0;
+            pageSize = limit;
+        }
+        List<PostDTO> postDTOS;
+        if(AppConstants.SUMMARY_VIEW.equalsIgnoreCase(view)){
+            postDTOS = pageSize != null
+                    ? postService.searchPostSummaries(keyword, pageNo == null ? 0 : pageNo, pageSize)
+                    : postService.searchPostSummaries(keyword);
+        }
+        else if(pageSize != null){
+            postDTOS = postService.searchPost(keyword, pageNo == null ? 0 : pageNo, pageSize);
+        }
+        else {
+            postDTOS = postService.searchPost(keyword);
+        }
         return ResponseEntity.ok(postDTOS);
     }
 
+    @Operation(
+            summary = "Suggest Post Titles REST API",
+            description = "Suggest Post Titles REST API returns post titles starting with the given prefix, for autocomplete"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Http Status 200 SUCCESS"
+    )
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> suggestTitles(@RequestParam("prefix") String prefix,
+                                                      @RequestParam(name = "limit", defaultValue = AppConstants.DEFAULT_SUGGESTIONS, required = false) int limit){
+        return ResponseEntity.ok(postService.suggestTitles(prefix, limit));
+    }
+
 }
@@ -2,14 +2,21 @@ package com.springboot.blog.entity;
 
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
-@Data
+//no @Data: equals and hashCode are Object's, so a comment is equal only to itself. hibernate hands out one instance
+//per row in a persistence context, and an identity hash neither changes when the id is assigned on insert nor
+//touches the lazy post proxy. toString leaves the post out for the same reason
+@Getter
+@Setter
+@ToString(exclude = "post")
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = @Index(name = "idx_comments_post_id_id", columnList = "post_id, id"))
 public class Comment {
     @Id
     @GeneratedValue(strategy= GenerationType.IDENTITY)
@@ -2,16 +2,22 @@ package com.springboot.blog.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.time.Instant;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "posts", uniqueConstraints = {@UniqueConstraint(columnNames = {"title"})})
+@Table(name = "posts", uniqueConstraints = {@UniqueConstraint(columnNames = {"title"})},
+        indexes = {@Index(name = "idx_posts_comment_count", columnList = "comment_count"),
+                @Index(name = "idx_posts_updated_at", columnList = "updated_at")})
 public class Post {
     @Id
     @GeneratedValue(strategy= GenerationType.IDENTITY)
@@ -26,11 +32,27 @@ public class Post {
     @Column(name = "content", nullable = false)
     private String content;
 
+    //a list in id order rather than a hash set: adding a comment never hashes it, and the collection is read with
+    //post_id = ? ORDER BY id, which idx_comments_post_id_id serves without a sort
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true) //if parent is removed child will also get remove
-    Set<Comment> comments = new HashSet<>();
+    @OrderBy("id")
+    List<Comment> comments = new ArrayList<>();
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
+    //number of comments, kept by PostRepository.addToCommentCount in the transaction that adds or removes one and
+    //corrected by CommentCountReconciler. never written from the entity, so saving a post that was read before a
+    //concurrent comment cannot overwrite the count
+    @ColumnDefault("0")
+    @Column(name = "comment_count", nullable = false, updatable = false)
+    private long commentCount;
+
+    //last insert or update of the post through hibernate; the comment count does not touch it. lets PostIndexer find
+    //the posts written since its persisted search segment was synced. null on rows not written since it was added
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
 }
@@ -0,0 +1,31 @@
+package com.springboot.blog.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+//a token revoked before its expiry, kept only until then
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "revoked_tokens", indexes = @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at"))
+public class RevokedToken {
+    //the token's jti
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    //when it was revoked, so other instances can pick up the revocations made since they last looked. null on rows
+    //written before the column existed, which every instance has read at startup
+    @Column(name = "revoked_at")
+    private Instant revokedAt;
+}
@@ -13,17 +13,25 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username"),
+        @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email")})
 public class User {
+    //named so that a duplicate signup can be told apart from the constraint violation alone. these are the names
+    //hibernate generated for the former @Column(unique = true), so ddl-auto=update keeps the existing constraints
+    //instead of adding a second unique index next to them
+    public static final String USERNAME_CONSTRAINT = "UKr43af9ap4edm43mmtq01oddj6";
+    public static final String EMAIL_CONSTRAINT = "UK6dotkott2kjsp8vw4d0m25fb7";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String name;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String username;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     @Column(nullable = false)
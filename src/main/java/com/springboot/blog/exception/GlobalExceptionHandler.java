@@ -3,6 +3,7 @@ package com.springboot.blog.exception;
 import com.springboot.blog.payload.ErrorDetails;
 import jakarta.persistence.FieldResult;
 import jakarta.persistence.UniqueConstraint;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
@@ -30,7 +31,14 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(BlogAPIException.class)
     private ResponseEntity<ErrorDetails> handleBlogAPIException(BlogAPIException exception, WebRequest webRequest){
         ErrorDetails errorDetails = new ErrorDetails(new Date(), exception.getMessage(), webRequest.getDescription(false));
-        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(errorDetails, exception.getStatus());
+    }
+
+    //the driver's message holds the SQL statement and constraint names, it is not sent to the client
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    private ResponseEntity<ErrorDetails> handleDataIntegrityViolationException(DataIntegrityViolationException exception, WebRequest webRequest){
+        ErrorDetails errorDetails = new ErrorDetails(new Date(), "Data integrity violation", webRequest.getDescription(false));
+        return new ResponseEntity<>(errorDetails, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
     //global exception
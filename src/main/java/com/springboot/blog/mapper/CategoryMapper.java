@@ -0,0 +1,22 @@
+package com.springboot.blog.mapper;
+
+import com.springboot.blog.entity.Category;
+import com.springboot.blog.payload.CategoryDTO;
+
+//field by field copies, no reflection; the posts of a category are never mapped
+public final class CategoryMapper {
+    private CategoryMapper() {
+    }
+
+    public static CategoryDTO toDTO(Category category) {
+        return new CategoryDTO(category.getId(), category.getName(), category.getDescription());
+    }
+
+    public static Category toEntity(CategoryDTO categoryDTO) {
+        Category category = new Category();
+        category.setId(categoryDTO.getId());
+        category.setName(categoryDTO.getName());
+        category.setDescription(categoryDTO.getDescription());
+        return category;
+    }
+}
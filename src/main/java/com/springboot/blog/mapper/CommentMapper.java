@@ -0,0 +1,28 @@
+package com.springboot.blog.mapper;
+
+import com.springboot.blog.entity.Comment;
+import com.springboot.blog.payload.CommentDTO;
+
+//field by field copies, no reflection; the post of a comment is set by the caller
+public final class CommentMapper {
+    private CommentMapper() {
+    }
+
+    public static CommentDTO toDTO(Comment comment) {
+        CommentDTO commentDTO = new CommentDTO();
+        commentDTO.setId(comment.getId());
+        commentDTO.setName(comment.getName());
+        commentDTO.setEmail(comment.getEmail());
+        commentDTO.setBody(comment.getBody());
+        return commentDTO;
+    }
+
+    public static Comment toEntity(CommentDTO commentDTO) {
+        Comment comment = new Comment();
+        comment.setId(commentDTO.getId());
+        comment.setName(commentDTO.getName());
+        comment.setEmail(commentDTO.getEmail());
+        comment.setBody(commentDTO.getBody());
+        return comment;
+    }
+}
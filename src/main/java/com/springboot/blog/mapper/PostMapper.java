@@ -0,0 +1,66 @@
+package com.springboot.blog.mapper;
+
+import com.springboot.blog.entity.Comment;
+import com.springboot.blog.entity.Post;
+import com.springboot.blog.payload.CommentDTO;
+import com.springboot.blog.payload.PostDTO;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+//field by field copies, no reflection. produces what ModelMapper did: categoryId from the category's id (a lazy
+//category proxy is not initialised for it), comments as a HashSet, and the stored commentCount
+public final class PostMapper {
+    private PostMapper() {
+    }
+
+    public static PostDTO toDTO(Post post) {
+        PostDTO postDTO = toDTOWithoutComments(post);
+        postDTO.setComments(toCommentDTOs(post.getComments()));
+        return postDTO;
+    }
+
+    //latest comments view: the given comments, in their order, instead of the post's collection, which is not touched
+    public static PostDTO toDTO(Post post, List<CommentDTO> latestComments) {
+        PostDTO postDTO = toDTOWithoutComments(post);
+        postDTO.setComments(new LinkedHashSet<>(latestComments));
+        return postDTO;
+    }
+
+    private static PostDTO toDTOWithoutComments(Post post) {
+        PostDTO postDTO = new PostDTO();
+        postDTO.setId(post.getId());
+        postDTO.setTitle(post.getTitle());
+        postDTO.setDescription(post.getDescription());
+        postDTO.setContent(post.getContent());
+        if (post.getCategory() != null) {
+            postDTO.setCategoryId(post.getCategory().getId());
+        }
+        postDTO.setCommentCount(post.getCommentCount());
+        return postDTO;
+    }
+
+    //comments and category are attached by the caller, a post is never created together with its comments
+    public static Post toEntity(PostDTO postDTO) {
+        Post post = new Post();
+        post.setId(postDTO.getId());
+        post.setTitle(postDTO.getTitle());
+        post.setDescription(postDTO.getDescription());
+        post.setContent(postDTO.getContent());
+        return post;
+    }
+
+    private static Set<CommentDTO> toCommentDTOs(List<Comment> comments) {
+        if (comments == null) {
+            return null;
+        }
+        //default capacity on purpose: a presized set can iterate, and so serialize, in another order
+        Set<CommentDTO> commentDTOs = new HashSet<>();
+        for (Comment comment : comments) {
+            commentDTOs.add(CommentMapper.toDTO(comment));
+        }
+        return commentDTOs;
+    }
+}
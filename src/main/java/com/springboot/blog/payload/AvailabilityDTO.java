@@ -0,0 +1,16 @@
+package com.springboot.blog.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+//null for a value that was not asked about
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvailabilityDTO {
+    private Boolean usernameAvailable;
+    private Boolean emailAvailable;
+}
@@ -4,8 +4,10 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
 public class CommentDTO {
     private long id;
 
@@ -19,4 +21,12 @@ public class CommentDTO {
     @NotEmpty
     @Size(min = 10, message = "Comment body must be minimum 10 characters")
     private String body;
+
+    //projection used by the comment listing, the comment entity and its post are not loaded
+    public CommentDTO(long id, String name, String email, String body) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.body = body;
+    }
 }
@@ -0,0 +1,20 @@
+package com.springboot.blog.payload;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CommentResponse {
+    private List<CommentDTO> content;
+    private int pageSize;
+    private boolean last;
+    //id of the last comment returned, pass it back as cursor for the next page; not set on the last page
+    private Long next;
+}
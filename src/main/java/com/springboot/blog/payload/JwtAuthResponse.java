@@ -11,5 +11,6 @@ import lombok.Setter;
 @NoArgsConstructor
 public class JwtAuthResponse {
     private String accessToken;
+    private String refreshToken;
     private String tokenType = "Bearer";
 }
@@ -1,13 +1,16 @@
 package com.springboot.blog.payload;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.util.Set;
 
 @Data
+@NoArgsConstructor
 @Schema(
         description = "PostDto Model Information"
 )
@@ -32,12 +35,29 @@ public class PostDTO {
             description = "Blog Post Content"
     )
     @NotEmpty
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String content;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Set<CommentDTO> comments;
 
     @Schema(
             description = "Blog Post Category"
     )
     private Long categoryId;
+
+    @Schema(
+            description = "Number of comments"
+    )
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long commentCount;
+
+    //summary projection used by the list endpoints with view=summary, content and comments are not loaded
+    public PostDTO(Long id, String title, String description, Long categoryId, Long commentCount) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.categoryId = categoryId;
+        this.commentCount = commentCount;
+    }
 }
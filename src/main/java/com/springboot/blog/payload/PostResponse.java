@@ -1,5 +1,6 @@
 package com.springboot.blog.payload;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,11 +10,17 @@ import java.util.List;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PostResponse {
     private List<PostDTO> content;
     private int pageNo;
     private int pageSize;
-    private long totalElements;
-    private int totalPages;
+    //not computed in cursor mode, optional in slice mode
+    private Long totalElements;
+    private Integer totalPages;
     private boolean last;
+    //set in slice mode when totals come from the background-refreshed count
+    private Boolean approximateTotal;
+    //opaque cursor for the next page, only set in cursor mode
+    private String next;
 }
@@ -0,0 +1,16 @@
+package com.springboot.blog.payload;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshTokenDTO {
+    @NotEmpty(message = "Refresh token is required")
+    private String refreshToken;
+}
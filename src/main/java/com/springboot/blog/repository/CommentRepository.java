@@ -1,10 +1,59 @@
 package com.springboot.blog.repository;
 
 import com.springboot.blog.entity.Comment;
+import com.springboot.blog.payload.CommentDTO;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface CommentRepository extends JpaRepository<Comment,Long> {
-    List<Comment> findByPostId(long postId);
+    //keyset page of a post's comments in id order, projected straight into DTOs: no comment entity is hydrated and the
+    //post is filtered on the post_id column without a join
+    @Query("SELECT new com.springboot.blog.payload.CommentDTO(c.id, c.name, c.email, c.body) FROM Comment c " +
+            "WHERE c.post.id = :postId AND c.id > :afterId ORDER BY c.id")
+    List<CommentDTO> findPageByPostId(long postId, long afterId, Limit limit);
+
+    //the newest comments of one post, newest first
+    @Query("SELECT new com.springboot.blog.payload.CommentDTO(c.id, c.name, c.email, c.body) FROM Comment c " +
+            "WHERE c.post.id = :postId ORDER BY c.id DESC")
+    List<CommentDTO> findLatestByPostId(long postId, Limit limit);
+
+    //the newest comments of every post of a list page in one query, limited per post: for each post the id of its
+    //limit-th newest comment is found by a backward walk of idx_comments_post_id_id, then the comments from that id
+    //up are read as one range of the same index. a page costs about (posts x limit) index entries however many
+    //comments its posts have; a post with fewer comments has no such id and all of them are read
+    default List<LatestComment> findLatestByPostIdIn(Collection<Long> postIds, int limit) {
+        return findNewestByPostIdIn(postIds, limit - 1);
+    }
+
+    @Query(value = "SELECT c.id, c.name, c.email, c.body, c.post_id AS postId FROM (" +
+            "SELECT p.id AS post_id, (SELECT n.id FROM comments n WHERE n.post_id = p.id " +
+            "ORDER BY n.id DESC LIMIT 1 OFFSET :skip) AS oldest_id FROM posts p WHERE p.id IN (:postIds)) bounds " +
+            "JOIN comments c ON c.post_id = bounds.post_id AND c.id >= COALESCE(bounds.oldest_id, 0) " +
+            "ORDER BY c.post_id, c.id DESC", nativeQuery = true)
+    List<LatestComment> findNewestByPostIdIn(Collection<Long> postIds, int skip);
+
+    interface LatestComment {
+        Long getId();
+        String getName();
+        String getEmail();
+        String getBody();
+        Long getPostId();
+    }
+
+    //one read for the comment paths: empty when the post does not exist, otherwise the comment (null when there is no
+    //comment with that id) and the id of the post it belongs to, read from its post_id column. the post is never loaded
+    @Query("SELECT p.id AS postId, c AS comment, c.post.id AS commentPostId FROM Post p " +
+            "LEFT JOIN Comment c ON c.id = :commentId WHERE p.id = :postId")
+    Optional<CommentOfPost> findCommentOfPost(Long postId, Long commentId);
+
+    interface CommentOfPost {
+        Long getPostId();
+        Comment getComment();
+        Long getCommentPostId();
+    }
 }
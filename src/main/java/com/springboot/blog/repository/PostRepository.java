@@ -1,20 +1,96 @@
 package com.springboot.blog.repository;
 
 import com.springboot.blog.entity.Post;
+import com.springboot.blog.payload.PostDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 //@Repository is not required actually, because the SimpleJpaRepository class already annotated with @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
 
+ //comments are fetched in the same query, list views map every post's comments
+ @EntityGraph(attributePaths = "comments")
  List<Post> findByCategoryId(Long categoryId);
 
+ @Query("SELECT p.id FROM Post p WHERE p.category.id = :categoryId")
+ List<Long> findIdsByCategoryId(Long categoryId);
+
+ //loads a page's posts together with their comments in one query, used after paging on ids
+ @EntityGraph(attributePaths = "comments")
+ List<Post> findWithCommentsByIdIn(Collection<Long> ids);
+
+ //fetches pageSize+1 rows to tell whether a next page exists, without the COUNT(*) a Page needs
+ Slice<Post> findAllBy(Pageable pageable);
+
+ //keyset scrolling: seeks past the position's sort key and id with a WHERE instead of an OFFSET
+ Window<Post> findBy(ScrollPosition position, Sort sort, Limit limit);
+
+ //the posts above an id or written after an instant, in keyset batches
+ Window<Post> findByIdGreaterThanOrUpdatedAtAfter(Long id, Instant updatedAt, ScrollPosition position, Sort sort, Limit limit);
+
+ //null when there are no posts
+ @Query("SELECT MAX(p.id) FROM Post p")
+ Long findMaxId();
+
+ @EntityGraph(attributePaths = "comments")
  @Query("SELECT p FROM Post p WHERE " +
          "p.title LIKE CONCAT('%', :keyword, '%') OR " +
          "p.description LIKE CONCAT('%', :keyword, '%') OR " +
          "p.content LIKE CONCAT('%', :keyword, '%')")
  List<Post> searchPost(String keyword);
 
+ //summary projections: only id, title, description, category id and comment count are selected, no entity is hydrated
+ String SUMMARY_SELECT = "SELECT new com.springboot.blog.payload.PostDTO(p.id, p.title, p.description, c.id, " +
+         "p.commentCount) FROM Post p LEFT JOIN p.category c";
+
+ @Query(value = SUMMARY_SELECT, countQuery = "SELECT COUNT(p) FROM Post p")
+ Page<PostDTO> findAllSummaries(Pageable pageable);
+
+ //the ids among the given ones that still have a row
+ @Query("SELECT p.id FROM Post p WHERE p.id IN :ids")
+ List<Long> findExistingIds(Collection<Long> ids);
+
+ @Query(SUMMARY_SELECT + " WHERE p.id IN :ids")
+ List<PostDTO> findSummariesByIdIn(Collection<Long> ids);
+
+ @Query(SUMMARY_SELECT + " WHERE c.id = :categoryId")
+ List<PostDTO> findSummariesByCategoryId(Long categoryId);
+
+ @Query(SUMMARY_SELECT + " WHERE " +
+         "p.title LIKE CONCAT('%', :keyword, '%') OR " +
+         "p.description LIKE CONCAT('%', :keyword, '%') OR " +
+         "p.content LIKE CONCAT('%', :keyword, '%')")
+ List<PostDTO> searchPostSummaries(String keyword);
+
+ //adds delta to the stored count in the database (no read-modify-write), so concurrent comments never lose an update.
+ //runs in the caller's transaction, the count commits or rolls back together with the comment
+ @Modifying
+ @Query("UPDATE Post p SET p.commentCount = p.commentCount + :delta WHERE p.id = :postId")
+ int addToCommentCount(Long postId, long delta);
+
+ //posts with comments that still have the 0 comment_count was added with, read through idx_posts_comment_count
+ @Query("SELECT p.id FROM Post p WHERE p.commentCount = 0 AND EXISTS (SELECT c.id FROM Comment c WHERE c.post = p)")
+ List<Long> findUncountedIds(Limit limit);
+
+ //sets the count of the posts in (afterId, upToId] whose stored count differs from their comments; returns how many
+ @Transactional
+ @Modifying
+ @Query("UPDATE Post p SET p.commentCount = (SELECT COUNT(c) FROM Comment c WHERE c.post = p) " +
+         "WHERE p.id > :afterId AND p.id <= :upToId AND p.commentCount <> (SELECT COUNT(c) FROM Comment c WHERE c.post = p)")
+ int reconcileCommentCounts(Long afterId, Long upToId);
+
 }
@@ -1,8 +1,11 @@
 package com.springboot.blog.repository;
 
 import com.springboot.blog.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -11,4 +14,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
+
+    //keyset batches of the identifiers only, roles are not loaded
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserIdentity> findIdentitiesAfter(Long afterId, Limit limit);
+
+    interface UserIdentity {
+        Long getId();
+        String getUsername();
+        String getEmail();
+    }
 }
@@ -0,0 +1,289 @@
+package com.springboot.blog.search;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.function.Function;
+
+//immutable, memory-mapped snapshot of the post search index.
+//lookups binary-search the mapped file directly, so opening a segment costs the same whatever its size.
+//
+//layout (big-endian):
+//  header       magic, version, high-water post id, synced-at millis, doc count, term count, total field lengths, section offsets
+//  postings     per term, sorted by doc: int doc index + one unsigned short term frequency per field
+//  term bytes   UTF-8 terms, concatenated
+//  dictionary   per term, sorted by term: long term bytes offset, int term length, long first posting, int posting count
+//  docs         sorted by post id: long post id + one int token count per field
+final class IndexSegment {
+    private static final int MAGIC = 0x42505349; // "BPSI"
+    //bump whenever the layout or the tokenizer changes, older segments are then rebuilt
+    private static final int VERSION = 2;
+    private static final int FIELDS = PostSearchIndex.FIELDS;
+
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 4 + 8 * FIELDS + 8 * 4;
+    private static final int POSTING_SIZE = 4 + 2 * FIELDS;
+    private static final int DICTIONARY_ENTRY_SIZE = 8 + 4 + 8 + 4;
+    private static final int DOC_SIZE = 8 + 4 * FIELDS;
+
+    private final ByteBuffer buffer;
+    private final long highWaterPostId;
+    private final long syncedAt;
+    private final int docCount;
+    private final int termCount;
+    private final long[] totalFieldLengths = new long[FIELDS];
+    private final int postingsOffset;
+    private final int termBytesOffset;
+    private final int dictionaryOffset;
+    private final int docsOffset;
+
+    private IndexSegment(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a post index segment of version " + VERSION);
+        }
+        int position = 8;
+        highWaterPostId = buffer.getLong(position);
+        position += 8;
+        syncedAt = buffer.getLong(position);
+        position += 8;
+        docCount = buffer.getInt(position);
+        position += 4;
+        termCount = buffer.getInt(position);
+        position += 4;
+        for (int field = 0; field < FIELDS; field++) {
+            totalFieldLengths[field] = buffer.getLong(position);
+            position += 8;
+        }
+        postingsOffset = (int) buffer.getLong(position);
+        termBytesOffset = (int) buffer.getLong(position + 8);
+        dictionaryOffset = (int) buffer.getLong(position + 16);
+        docsOffset = (int) buffer.getLong(position + 24);
+        if ((long) docsOffset + (long) docCount * DOC_SIZE != buffer.capacity()) {
+            throw new IOException("Truncated post index segment");
+        }
+    }
+
+    static IndexSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Post index segment larger than 2 GB");
+            }
+            //the mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new IndexSegment(buffer);
+        }
+    }
+
+    long highWaterPostId() {
+        return highWaterPostId;
+    }
+
+    //epoch millis of the last full read of the posts table the segment's docs reflect, 0 if never synced
+    long syncedAt() {
+        return syncedAt;
+    }
+
+    int docCount() {
+        return docCount;
+    }
+
+    long totalFieldLength(int field) {
+        return totalFieldLengths[field];
+    }
+
+    long docId(int doc) {
+        return buffer.getLong(docsOffset + doc * DOC_SIZE);
+    }
+
+    int fieldLength(int doc, int field) {
+        return buffer.getInt(docsOffset + doc * DOC_SIZE + 8 + 4 * field);
+    }
+
+    //doc index of the post, or -1 if the segment does not contain it
+    int docIndex(long postId) {
+        int low = 0;
+        int high = docCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long id = docId(mid);
+            if (id < postId) {
+                low = mid + 1;
+            } else if (id > postId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    int termCount() {
+        return termCount;
+    }
+
+    String term(int termIndex) {
+        int entry = dictionaryOffset + termIndex * DICTIONARY_ENTRY_SIZE;
+        int offset = termBytesOffset + (int) buffer.getLong(entry);
+        byte[] bytes = new byte[buffer.getInt(entry + 8)];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //term index in the dictionary, or -1 if the segment does not contain the term
+    int findTerm(String term) {
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = term(mid).compareTo(term);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    int firstPosting(int termIndex) {
+        return (int) buffer.getLong(dictionaryOffset + termIndex * DICTIONARY_ENTRY_SIZE + 12);
+    }
+
+    int postingCount(int termIndex) {
+        return buffer.getInt(dictionaryOffset + termIndex * DICTIONARY_ENTRY_SIZE + 20);
+    }
+
+    int postingDoc(int posting) {
+        return buffer.getInt(postingsOffset + posting * POSTING_SIZE);
+    }
+
+    void postingFrequencies(int posting, int[] frequencies) {
+        int position = postingsOffset + posting * POSTING_SIZE + 4;
+        for (int field = 0; field < FIELDS; field++) {
+            frequencies[field] = buffer.getChar(position + 2 * field);
+        }
+    }
+
+    //posting of the doc in the term's block, or -1 if the doc does not contain the term
+    int findPosting(int termIndex, int doc) {
+        int low = firstPosting(termIndex);
+        int high = low + postingCount(termIndex) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midDoc = postingDoc(mid);
+            if (midDoc < doc) {
+                low = mid + 1;
+            } else if (midDoc > doc) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    //writes a segment from sorted docs and sorted terms, postingsOf must return each term's postings keyed by post id
+    static void write(Path file, long highWaterPostId, long syncedAt, NavigableMap<Long, int[]> docs, Iterator<String> sortedTerms,
+                      Function<String, NavigableMap<Long, int[]>> postingsOf) throws IOException {
+        long[] docIds = new long[docs.size()];
+        long[] totalFieldLengths = new long[FIELDS];
+        int doc = 0;
+        for (Map.Entry<Long, int[]> entry : docs.entrySet()) {
+            docIds[doc++] = entry.getKey();
+            for (int field = 0; field < FIELDS; field++) {
+                totalFieldLengths[field] += entry.getValue()[field];
+            }
+        }
+
+        long[] termOffsets = new long[16];
+        int[] termLengths = new int[16];
+        long[] firstPostings = new long[16];
+        int[] postingCounts = new int[16];
+        byte[][] termBytes = new byte[16][];
+        int termCount = 0;
+        long postingCount = 0;
+        long termBytesLength = 0;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.write(new byte[HEADER_SIZE]);
+            while (sortedTerms.hasNext()) {
+                String term = sortedTerms.next();
+                NavigableMap<Long, int[]> postings = postingsOf.apply(term);
+                if (postings.isEmpty()) {
+                    continue;
+                }
+                if (termCount == termOffsets.length) {
+                    int capacity = termCount * 2;
+                    termOffsets = Arrays.copyOf(termOffsets, capacity);
+                    termLengths = Arrays.copyOf(termLengths, capacity);
+                    firstPostings = Arrays.copyOf(firstPostings, capacity);
+                    postingCounts = Arrays.copyOf(postingCounts, capacity);
+                    termBytes = Arrays.copyOf(termBytes, capacity);
+                }
+                termBytes[termCount] = term.getBytes(StandardCharsets.UTF_8);
+                termOffsets[termCount] = termBytesLength;
+                termLengths[termCount] = termBytes[termCount].length;
+                firstPostings[termCount] = postingCount;
+                postingCounts[termCount] = postings.size();
+                termBytesLength += termBytes[termCount].length;
+                termCount++;
+                for (Map.Entry<Long, int[]> posting : postings.entrySet()) {
+                    out.writeInt(Arrays.binarySearch(docIds, posting.getKey()));
+                    for (int field = 0; field < FIELDS; field++) {
+                        out.writeChar(Math.min(posting.getValue()[field], Character.MAX_VALUE));
+                    }
+                    postingCount++;
+                }
+            }
+            for (int term = 0; term < termCount; term++) {
+                out.write(termBytes[term]);
+            }
+            for (int term = 0; term < termCount; term++) {
+                out.writeLong(termOffsets[term]);
+                out.writeInt(termLengths[term]);
+                out.writeLong(firstPostings[term]);
+                out.writeInt(postingCounts[term]);
+            }
+            for (Map.Entry<Long, int[]> entry : docs.entrySet()) {
+                out.writeLong(entry.getKey());
+                for (int field = 0; field < FIELDS; field++) {
+                    out.writeInt(entry.getValue()[field]);
+                }
+            }
+        }
+
+        long postingsOffset = HEADER_SIZE;
+        long termBytesOffset = postingsOffset + postingCount * POSTING_SIZE;
+        long dictionaryOffset = termBytesOffset + termBytesLength;
+        long docsOffset = dictionaryOffset + (long) termCount * DICTIONARY_ENTRY_SIZE;
+        try (RandomAccessFile header = new RandomAccessFile(file.toFile(), "rw")) {
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeLong(highWaterPostId);
+            header.writeLong(syncedAt);
+            header.writeInt(docIds.length);
+            header.writeInt(termCount);
+            for (int field = 0; field < FIELDS; field++) {
+                header.writeLong(totalFieldLengths[field]);
+            }
+            header.writeLong(postingsOffset);
+            header.writeLong(termBytesOffset);
+            header.writeLong(dictionaryOffset);
+            header.writeLong(docsOffset);
+        }
+    }
+}
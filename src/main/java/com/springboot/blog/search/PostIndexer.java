@@ -0,0 +1,215 @@
+package com.springboot.blog.search;
+
+import com.springboot.blog.entity.Post;
+import com.springboot.blog.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+//keeps the in-memory post indexes in step with the posts table:
+//builds them once at startup and applies every post write made through PostServiceImpl.
+//when a persisted search segment exists it is mapped instead of rebuilt and caught up with the table: posts above its
+//high-water id or written since it was last synced (updated_at) are indexed again, and its posts that no longer have a
+//row are removed. a post count that still differs from the table's rebuilds the index from scratch.
+//writes made through onSaved/onDeleted while a build scrolls the table win over what the build read, so a build never
+//puts back an old title or a deleted post.
+@Component
+public class PostIndexer {
+    private static final Logger logger = LoggerFactory.getLogger(PostIndexer.class);
+    private static final int BATCH_SIZE = 1000;
+    //how far before the segment's sync time posts are re-read, for writes that committed late and for clock skew
+    //between the instances stamping updated_at
+    static final Duration SYNC_OVERLAP = Duration.ofMinutes(5);
+
+    private final PostRepository postRepository;
+    private final PostSearchIndex postSearchIndex;
+    private final TitleSuggester titleSuggester;
+    private final SearchIndexStore searchIndexStore;
+    private final TrigramIndex trigramIndex;
+    //ids written while a build is running, guarded by this
+    private final Set<Long> writtenDuringBuild = new HashSet<>();
+    private int buildsRunning;
+
+    public PostIndexer(PostRepository postRepository, PostSearchIndex postSearchIndex, TitleSuggester titleSuggester,
+                       SearchIndexStore searchIndexStore, TrigramIndex trigramIndex) {
+        this.postRepository = postRepository;
+        this.postSearchIndex = postSearchIndex;
+        this.titleSuggester = titleSuggester;
+        this.searchIndexStore = searchIndexStore;
+        this.trigramIndex = trigramIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexes() {
+        long start = System.currentTimeMillis();
+        beginBuild();
+        try {
+            IndexSegment segment = searchIndexStore.open();
+            if (segment != null && catchUp(segment)) {
+                postSearchIndex.markSynced(start);
+                postSearchIndex.markReady();
+                logger.info("Loaded search index segment with {} posts in {} ms", postSearchIndex.size(),
+                        System.currentTimeMillis() - start);
+                //the trie is not persisted, build it without holding up search
+                beginBuild();
+                Thread trieBuilder = new Thread(() -> {
+                    try {
+                        scroll(this::findAll, unlessWritten(titleSuggester::index));
+                    } finally {
+                        endBuild();
+                    }
+                }, "title-suggester-build");
+                trieBuilder.setDaemon(true);
+                trieBuilder.start();
+                return;
+            }
+
+            restart();
+            scroll(this::findAll, unlessWritten(this::index));
+            postSearchIndex.markSynced(start);
+            postSearchIndex.markReady();
+            trigramIndex.markReady();
+            logger.info("Indexed {} posts for search in {} ms, title trie uses ~{} bytes",
+                    Math.max(postSearchIndex.size(), trigramIndex.size()),
+                    System.currentTimeMillis() - start, titleSuggester.estimatedMemoryBytes());
+        } finally {
+            endBuild();
+        }
+        searchIndexStore.flush();
+    }
+
+    //loads the segment and indexes what it is missing; false when it cannot be trusted and the index must be rebuilt
+    private boolean catchUp(IndexSegment segment) {
+        Long maxId = postRepository.findMaxId();
+        //a segment newer than the table belongs to another database
+        if (maxId == null || segment.highWaterPostId() > maxId) {
+            return false;
+        }
+        postSearchIndex.load(segment);
+        removeDeleted(segment);
+        Long highWaterPostId = segment.highWaterPostId();
+        Instant since = Instant.ofEpochMilli(segment.syncedAt()).minus(SYNC_OVERLAP);
+        scroll(position -> postRepository.findByIdGreaterThanOrUpdatedAtAfter(highWaterPostId, since, position,
+                Sort.by("id"), Limit.of(BATCH_SIZE)), unlessWritten(postSearchIndex::index));
+        long posts = postRepository.count();
+        if (postSearchIndex.size() != posts) {
+            logger.info("Search index segment has {} posts, the table {}: rebuilding", postSearchIndex.size(), posts);
+            return false;
+        }
+        return true;
+    }
+
+    //segment posts deleted while the segment was not written. checked by id: an insert missed in the same outage would
+    //hide the delete from the post count
+    private void removeDeleted(IndexSegment segment) {
+        int removed = 0;
+        for (int from = 0; from < segment.docCount(); from += BATCH_SIZE) {
+            List<Long> ids = new ArrayList<>(BATCH_SIZE);
+            for (int doc = from; doc < Math.min(from + BATCH_SIZE, segment.docCount()); doc++) {
+                ids.add(segment.docId(doc));
+            }
+            Set<Long> existing = new HashSet<>(postRepository.findExistingIds(ids));
+            for (Long id : ids) {
+                if (!existing.contains(id)) {
+                    postSearchIndex.remove(id);
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            logger.info("Removed {} posts deleted since the search index segment was written", removed);
+        }
+    }
+
+    //empties the indexes before a full build. posts written so far are read again by the build, so it no longer skips them
+    private synchronized void restart() {
+        postSearchIndex.clear();
+        writtenDuringBuild.clear();
+    }
+
+    private Window<Post> findAll(ScrollPosition position) {
+        return postRepository.findBy(position, Sort.by("id"), Limit.of(BATCH_SIZE));
+    }
+
+    //keyset batches in id order so the whole table is never held in memory
+    private void scroll(Function<ScrollPosition, Window<Post>> batch, Consumer<Post> consumer) {
+        ScrollPosition position = ScrollPosition.keyset();
+        Window<Post> posts;
+        do {
+            posts = batch.apply(position);
+            posts.forEach(consumer);
+            if (!posts.isEmpty()) {
+                position = (KeysetScrollPosition) posts.positionAt(posts.size() - 1);
+            }
+        } while (posts.hasNext());
+    }
+
+    private synchronized void beginBuild() {
+        buildsRunning++;
+    }
+
+    private synchronized void endBuild() {
+        if (--buildsRunning == 0) {
+            writtenDuringBuild.clear();
+        }
+    }
+
+    //the build's copy of a post, unless a newer write of it has been applied since the build started
+    private Consumer<Post> unlessWritten(Consumer<Post> consumer) {
+        return post -> {
+            synchronized (this) {
+                if (!writtenDuringBuild.contains(post.getId())) {
+                    consumer.accept(post);
+                }
+            }
+        };
+    }
+
+    private synchronized void written(Long postId) {
+        if (buildsRunning > 0) {
+            writtenDuringBuild.add(postId);
+        }
+    }
+
+    public synchronized void onSaved(Post post) {
+        written(post.getId());
+        index(post);
+    }
+
+    public synchronized void onDeleted(Long postId) {
+        written(postId);
+        if (postSearchIndex.isEnabled()) {
+            postSearchIndex.remove(postId);
+        }
+        if (trigramIndex.isEnabled()) {
+            trigramIndex.remove(postId);
+        }
+        titleSuggester.remove(postId);
+    }
+
+    private void index(Post post) {
+        if (postSearchIndex.isEnabled()) {
+            postSearchIndex.index(post);
+        }
+        if (trigramIndex.isEnabled()) {
+            trigramIndex.index(post);
+        }
+        titleSuggester.index(post);
+    }
+}
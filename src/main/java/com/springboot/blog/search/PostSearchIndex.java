@@ -0,0 +1,427 @@
+package com.springboot.blog.search;
+
+import com.springboot.blog.entity.Post;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//in-memory inverted index over post title, description and content.
+//a query matches the posts containing every query term, matches are ranked with BM25F (per-field boosts and length
+//normalisation) and only the best k are kept in a bounded heap, the full match list is never sorted or materialised.
+//
+//the index may sit on top of a memory-mapped segment loaded at startup: posts written since then live in the heap
+//maps below, and segment posts that were updated or deleted are hidden by a tombstone set.
+@Component
+public class PostSearchIndex {
+    //the default: LIKE '%keyword%' in the database, substring matches as /api/posts/search always had
+    public static final String SQL_MODE = "sql";
+    //opt-in: ranked whole-word matches, "spring" no longer finds "springboot"
+    public static final String INDEX_MODE = "index";
+
+    //fields in index order: title, description, content
+    static final int FIELDS = 3;
+
+    //standard BM25 saturation and length normalisation parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    //worst hit at the head, so the heap can drop it when a better one arrives
+    private static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::score)
+            .thenComparing(Hit::postId, Comparator.reverseOrder());
+
+    private final boolean enabled;
+    private final int maxResults;
+    private final double[] boosts;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    //term -> post id -> term frequency per field
+    private final Map<String, Map<Long, int[]>> postings = new HashMap<>();
+    //post id -> token count per field
+    private final Map<Long, int[]> fieldLengths = new HashMap<>();
+    private final long[] totalFieldLengths = new long[FIELDS];
+    //terms of every indexed post, needed to remove its postings on update and delete
+    private final Map<Long, Set<String>> postTerms = new HashMap<>();
+    private IndexSegment segment;
+    //segment posts that were updated or deleted after the segment was loaded
+    private final Set<Long> segmentDeleted = new HashSet<>();
+    private long highWaterPostId;
+    //when the index last read the whole posts table (or caught up with it), written into the segment
+    private long syncedAt;
+    private long modifications;
+    private volatile boolean ready;
+
+    public PostSearchIndex(@Value("${app.search.mode:" + SQL_MODE + "}") String searchMode,
+                           @Value("${app.search.max-results:100}") int maxResults,
+                           @Value("${app.search.boost.title:3.0}") double titleBoost,
+                           @Value("${app.search.boost.description:1.5}") double descriptionBoost,
+                           @Value("${app.search.boost.content:1.0}") double contentBoost) {
+        this.enabled = INDEX_MODE.equalsIgnoreCase(searchMode);
+        this.maxResults = maxResults;
+        this.boosts = new double[]{titleBoost, descriptionBoost, contentBoost};
+    }
+
+    //false in sql mode and until the startup build has finished, callers then use the SQL search
+    public boolean isAvailable() {
+        return enabled && ready;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    //upper bound on the number of hits a single search returns
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    //uses the segment as the base of the index, posts above its high-water id still have to be indexed
+    void load(IndexSegment base) {
+        lock.writeLock().lock();
+        try {
+            segment = base;
+            for (int field = 0; field < FIELDS; field++) {
+                totalFieldLengths[field] += base.totalFieldLength(field);
+            }
+            highWaterPostId = Math.max(highWaterPostId, base.highWaterPostId());
+            syncedAt = base.syncedAt();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //the index reflects every post written before this instant (epoch millis), on top of its own writes since
+    void markSynced(long syncedAt) {
+        lock.writeLock().lock();
+        try {
+            this.syncedAt = syncedAt;
+            modifications++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //drops the segment and every indexed post, before a full rebuild
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            segment = null;
+            segmentDeleted.clear();
+            postings.clear();
+            fieldLengths.clear();
+            postTerms.clear();
+            Arrays.fill(totalFieldLengths, 0);
+            highWaterPostId = 0;
+            syncedAt = 0;
+            modifications++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Post post) {
+        List<List<String>> fieldTokens = List.of(
+                Tokenizer.tokenize(post.getTitle()),
+                Tokenizer.tokenize(post.getDescription()),
+                Tokenizer.tokenize(post.getContent()));
+        Map<String, int[]> termFrequencies = new HashMap<>();
+        int[] lengths = new int[FIELDS];
+        for (int field = 0; field < FIELDS; field++) {
+            for (String token : fieldTokens.get(field)) {
+                termFrequencies.computeIfAbsent(token, t -> new int[FIELDS])[field]++;
+            }
+            lengths[field] = fieldTokens.get(field).size();
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(post.getId());
+            for (Map.Entry<String, int[]> entry : termFrequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(post.getId(), entry.getValue());
+            }
+            postTerms.put(post.getId(), termFrequencies.keySet());
+            fieldLengths.put(post.getId(), lengths);
+            for (int field = 0; field < FIELDS; field++) {
+                totalFieldLengths[field] += lengths[field];
+            }
+            highWaterPostId = Math.max(highWaterPostId, post.getId());
+            modifications++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long postId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(postId);
+            modifications++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeDocument(Long postId) {
+        removePostings(postId);
+        if (segment != null && !segmentDeleted.contains(postId)) {
+            int doc = segment.docIndex(postId);
+            if (doc >= 0) {
+                segmentDeleted.add(postId);
+                for (int field = 0; field < FIELDS; field++) {
+                    totalFieldLengths[field] -= segment.fieldLength(doc, field);
+                }
+            }
+        }
+    }
+
+    private void removePostings(Long postId) {
+        Set<String> terms = postTerms.remove(postId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, int[]> posts = postings.get(term);
+            if (posts != null) {
+                posts.remove(postId);
+                if (posts.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        int[] lengths = fieldLengths.remove(postId);
+        for (int field = 0; field < FIELDS; field++) {
+            totalFieldLengths[field] -= lengths[field];
+        }
+    }
+
+    //ids of the best matching posts, most relevant first, at most limit of them. limit is capped one past max-results,
+    //so a caller can tell a result that was cut off from one that is complete
+    public List<Long> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        int k = (int) Math.min(limit, maxResults + 1L);
+        if (terms.isEmpty() || k <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            List<TermPostings> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                TermPostings termPostings = new TermPostings(postings.get(term),
+                        segment == null ? -1 : segment.findTerm(term));
+                if (termPostings.documentFrequency() == 0) {
+                    return Collections.emptyList();
+                }
+                lists.add(termPostings);
+            }
+            //walk the shortest posting list and probe the others
+            lists.sort(Comparator.comparingInt(TermPostings::documentFrequency));
+            int documents = documentCount();
+            double[] idfs = new double[lists.size()];
+            for (int i = 0; i < lists.size(); i++) {
+                idfs[i] = idf(lists.get(i).documentFrequency(), documents);
+            }
+            double[] averageLengths = new double[FIELDS];
+            for (int field = 0; field < FIELDS; field++) {
+                averageLengths[field] = Math.max(1.0, (double) totalFieldLengths[field] / Math.max(1, documents));
+            }
+
+            PriorityQueue<Hit> heap = new PriorityQueue<>(k + 1, WORST_FIRST);
+            TermPostings shortest = lists.get(0);
+            //posts written since the segment was loaded, all of their postings are on the heap
+            if (shortest.live != null) {
+                candidates:
+                for (Long postId : shortest.live.keySet()) {
+                    int[] lengths = fieldLengths.get(postId);
+                    double score = 0;
+                    for (int i = 0; i < lists.size(); i++) {
+                        Map<Long, int[]> live = lists.get(i).live;
+                        int[] frequencies = live == null ? null : live.get(postId);
+                        if (frequencies == null) {
+                            continue candidates;
+                        }
+                        score += idfs[i] * saturate(frequencies, lengths, averageLengths);
+                    }
+                    offer(heap, k, new Hit(postId, score));
+                }
+            }
+            //untouched segment posts, all of their postings are in the segment
+            if (shortest.segmentTerm >= 0) {
+                int[] lengths = new int[FIELDS];
+                int[] frequencies = new int[FIELDS];
+                int first = segment.firstPosting(shortest.segmentTerm);
+                int end = first + segment.postingCount(shortest.segmentTerm);
+                candidates:
+                for (int posting = first; posting < end; posting++) {
+                    int doc = segment.postingDoc(posting);
+                    long postId = segment.docId(doc);
+                    if (segmentDeleted.contains(postId)) {
+                        continue;
+                    }
+                    for (int field = 0; field < FIELDS; field++) {
+                        lengths[field] = segment.fieldLength(doc, field);
+                    }
+                    double score = 0;
+                    for (int i = 0; i < lists.size(); i++) {
+                        int segmentTerm = lists.get(i).segmentTerm;
+                        int termPosting = i == 0 ? posting : segmentTerm < 0 ? -1 : segment.findPosting(segmentTerm, doc);
+                        if (termPosting < 0) {
+                            continue candidates;
+                        }
+                        segment.postingFrequencies(termPosting, frequencies);
+                        score += idfs[i] * saturate(frequencies, lengths, averageLengths);
+                    }
+                    offer(heap, k, new Hit(postId, score));
+                }
+            }
+
+            Long[] ids = new Long[heap.size()];
+            for (int i = ids.length - 1; i >= 0; i--) {
+                ids[i] = heap.poll().postId();
+            }
+            return Arrays.asList(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void offer(PriorityQueue<Hit> heap, int k, Hit hit) {
+        if (heap.size() < k) {
+            heap.add(hit);
+        } else if (WORST_FIRST.compare(hit, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(hit);
+        }
+    }
+
+    private int documentCount() {
+        int documents = postTerms.size();
+        if (segment != null) {
+            documents += segment.docCount() - segmentDeleted.size();
+        }
+        return documents;
+    }
+
+    private static double idf(int documentFrequency, int documents) {
+        return Math.log(1 + Math.max(0, documents - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    //BM25F: boosted, length-normalised term frequencies are summed over the fields before saturation
+    private double saturate(int[] frequencies, int[] lengths, double[] averageLengths) {
+        double frequency = 0;
+        for (int field = 0; field < FIELDS; field++) {
+            if (frequencies[field] > 0) {
+                double norm = 1 - B + B * lengths[field] / averageLengths[field];
+                frequency += boosts[field] * frequencies[field] / norm;
+            }
+        }
+        return frequency * (K1 + 1) / (frequency + K1);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //number of index writes so far, lets the segment store skip flushing an unchanged index
+    long modifications() {
+        lock.readLock().lock();
+        try {
+            return modifications;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //writes the whole index (segment minus tombstones plus heap postings) as one new segment.
+    //holds the read lock: searches go on, index writes wait until the file is written.
+    void writeSegment(Path file) throws IOException {
+        lock.readLock().lock();
+        try {
+            NavigableMap<Long, int[]> docs = new TreeMap<>(fieldLengths);
+            Set<String> terms = new TreeSet<>(postings.keySet());
+            if (segment != null) {
+                for (int doc = 0; doc < segment.docCount(); doc++) {
+                    long postId = segment.docId(doc);
+                    if (!segmentDeleted.contains(postId)) {
+                        int[] lengths = new int[FIELDS];
+                        for (int field = 0; field < FIELDS; field++) {
+                            lengths[field] = segment.fieldLength(doc, field);
+                        }
+                        docs.put(postId, lengths);
+                    }
+                }
+                for (int term = 0; term < segment.termCount(); term++) {
+                    terms.add(segment.term(term));
+                }
+            }
+            IndexSegment.write(file, highWaterPostId, syncedAt, docs, terms.iterator(), this::mergedPostings);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private NavigableMap<Long, int[]> mergedPostings(String term) {
+        NavigableMap<Long, int[]> merged = new TreeMap<>();
+        int segmentTerm = segment == null ? -1 : segment.findTerm(term);
+        if (segmentTerm >= 0) {
+            int first = segment.firstPosting(segmentTerm);
+            int end = first + segment.postingCount(segmentTerm);
+            for (int posting = first; posting < end; posting++) {
+                long postId = segment.docId(segment.postingDoc(posting));
+                if (!segmentDeleted.contains(postId)) {
+                    int[] frequencies = new int[FIELDS];
+                    segment.postingFrequencies(posting, frequencies);
+                    merged.put(postId, frequencies);
+                }
+            }
+        }
+        Map<Long, int[]> live = postings.get(term);
+        if (live != null) {
+            merged.putAll(live);
+        }
+        return merged;
+    }
+
+    //a query term's postings on the heap and in the segment
+    private final class TermPostings {
+        private final Map<Long, int[]> live;
+        private final int segmentTerm;
+
+        private TermPostings(Map<Long, int[]> live, int segmentTerm) {
+            this.live = live;
+            this.segmentTerm = segmentTerm;
+        }
+
+        //includes tombstoned segment posts, close enough for idf and for picking the shortest list
+        int documentFrequency() {
+            return (live == null ? 0 : live.size()) + (segmentTerm < 0 ? 0 : segment.postingCount(segmentTerm));
+        }
+    }
+
+    private record Hit(Long postId, double score) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.springboot.blog.search;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+//keeps the post search index on disk as a single memory-mapped segment, so a restart maps the file
+//instead of re-reading and re-tokenizing every post.
+//the segment is rewritten periodically and on shutdown, always to a temp file that is then moved into place.
+//off unless app.search.segment-dir names a directory that outlives the process and belongs to this instance alone:
+//a tmp dir is cleaned or lost with the container, and two instances sharing one would overwrite each other's segment.
+@Component
+public class SearchIndexStore {
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexStore.class);
+    private static final String SEGMENT_FILE = "posts.seg";
+
+    private final PostSearchIndex postSearchIndex;
+    private final Path directory;
+    private long flushedModifications = -1;
+
+    public SearchIndexStore(PostSearchIndex postSearchIndex,
+                            @Value("${app.search.segment-dir:}") String directory) {
+        this.postSearchIndex = postSearchIndex;
+        //an empty directory turns persistence off
+        this.directory = directory == null || directory.isBlank() ? null : Path.of(directory);
+    }
+
+    public boolean isEnabled() {
+        return directory != null && postSearchIndex.isEnabled();
+    }
+
+    //the persisted segment, or null when there is none or it cannot be read (it is then rebuilt from the table)
+    IndexSegment open() {
+        if (!isEnabled() || !Files.isRegularFile(directory.resolve(SEGMENT_FILE))) {
+            return null;
+        }
+        try {
+            return IndexSegment.open(directory.resolve(SEGMENT_FILE));
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable search index segment {}: {}", directory.resolve(SEGMENT_FILE), e.getMessage());
+            return null;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.segment.flush-ms:1800000}", initialDelayString = "${app.search.segment.flush-ms:1800000}")
+    @PreDestroy
+    public synchronized void flush() {
+        if (!isEnabled() || !postSearchIndex.isAvailable()) {
+            return;
+        }
+        long modifications = postSearchIndex.modifications();
+        if (modifications == flushedModifications) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, SEGMENT_FILE, ".tmp");
+            try {
+                postSearchIndex.writeSegment(temp);
+                //on disk before the rename, so a crash cannot leave an empty or truncated segment in place
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+                Files.move(temp, directory.resolve(SEGMENT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            flushedModifications = modifications;
+        } catch (IOException e) {
+            logger.warn("Could not write search index segment to {}: {}", directory, e.getMessage());
+        }
+    }
+}
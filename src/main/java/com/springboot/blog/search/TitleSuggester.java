@@ -0,0 +1,237 @@
+package com.springboot.blog.search;
+
+import com.springboot.blog.entity.Post;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//prefix trie over lowercased post titles for autocomplete.
+//children are kept in sorted parallel arrays, so a node costs two small arrays instead of a map,
+//and a depth-first walk yields titles in alphabetical order and can stop after the first n.
+@Component
+public class TitleSuggester {
+    //rough per-object sizes on a 64-bit JVM with compressed oops, used for the footprint estimate
+    private static final long OBJECT_HEADER = 16;
+    private static final long ARRAY_HEADER = 16;
+    private static final long REFERENCE = 4;
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    //current title of every indexed post, needed to find its entry on update and delete
+    private final Map<Long, String> titles = new HashMap<>();
+    private long nodeCount = 1;
+
+    public TitleSuggester(MeterRegistry meterRegistry) {
+        Gauge.builder("post.suggest.nodes", this, TitleSuggester::nodeCount)
+                .description("Nodes in the post title autocomplete trie")
+                .register(meterRegistry);
+        Gauge.builder("post.suggest.memory", this, TitleSuggester::estimatedMemoryBytes)
+                .description("Estimated heap used by the post title autocomplete trie")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public void index(Post post) {
+        if (post.getTitle() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            String previous = titles.put(post.getId(), post.getTitle());
+            if (previous != null) {
+                removeEntry(previous, post.getId());
+            }
+            Node node = root;
+            String key = post.getTitle().toLowerCase(Locale.ROOT);
+            for (int i = 0; i < key.length(); i++) {
+                node = node.childOrCreate(key.charAt(i));
+            }
+            node.addEntry(post.getId(), post.getTitle());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long postId) {
+        lock.writeLock().lock();
+        try {
+            String title = titles.remove(postId);
+            if (title != null) {
+                removeEntry(title, postId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeEntry(String title, Long postId) {
+        String key = title.toLowerCase(Locale.ROOT);
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        path[key.length()].removeEntry(postId);
+        //prune the nodes that no longer lead to any title
+        for (int i = key.length(); i > 0 && path[i].isEmpty(); i--) {
+            path[i - 1].removeChild(key.charAt(i - 1));
+        }
+    }
+
+    //up to limit titles starting with prefix (case-insensitive), in alphabetical order
+    public List<String> suggest(String prefix, int limit) {
+        List<String> suggestions = new ArrayList<>();
+        if (prefix == null || prefix.isEmpty() || limit <= 0) {
+            return suggestions;
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            String key = prefix.toLowerCase(Locale.ROOT);
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node != null) {
+                collect(node, suggestions, limit);
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collect(Node node, List<String> suggestions, int limit) {
+        for (int i = 0; i < node.entryCount && suggestions.size() < limit; i++) {
+            suggestions.add(node.entryTitles[i]);
+        }
+        for (int i = 0; i < node.childCount && suggestions.size() < limit; i++) {
+            collect(node.children[i], suggestions, limit);
+        }
+    }
+
+    public long nodeCount() {
+        return nodeCount;
+    }
+
+    //node objects and their arrays plus the title strings, which are shared with nothing else
+    public long estimatedMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = estimate(root);
+            for (String title : titles.values()) {
+                bytes += OBJECT_HEADER + 8 + ARRAY_HEADER + title.length();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long estimate(Node node) {
+        long bytes = OBJECT_HEADER + 3 * REFERENCE + 8
+                + ARRAY_HEADER + 2L * node.keys.length
+                + ARRAY_HEADER + REFERENCE * node.children.length;
+        if (node.entryIds != null) {
+            bytes += ARRAY_HEADER + 8L * node.entryIds.length + ARRAY_HEADER + REFERENCE * node.entryTitles.length;
+        }
+        for (int i = 0; i < node.childCount; i++) {
+            bytes += estimate(node.children[i]);
+        }
+        return bytes;
+    }
+
+    private class Node {
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int childCount;
+        //titles ending at this node, more than one only when titles differ in case
+        private long[] entryIds;
+        private String[] entryTitles;
+        private int entryCount;
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, 0, childCount, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int index = Arrays.binarySearch(keys, 0, childCount, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            if (childCount == keys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, insertAt, keys, insertAt + 1, childCount - insertAt);
+            System.arraycopy(children, insertAt, children, insertAt + 1, childCount - insertAt);
+            Node child = new Node();
+            keys[insertAt] = c;
+            children[insertAt] = child;
+            childCount++;
+            nodeCount++;
+            return child;
+        }
+
+        void removeChild(char c) {
+            int index = Arrays.binarySearch(keys, 0, childCount, c);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(keys, index + 1, keys, index, childCount - index - 1);
+            System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+            childCount--;
+            children[childCount] = null;
+            nodeCount--;
+        }
+
+        void addEntry(long id, String title) {
+            if (entryIds == null) {
+                entryIds = new long[1];
+                entryTitles = new String[1];
+            } else if (entryCount == entryIds.length) {
+                entryIds = Arrays.copyOf(entryIds, entryCount + 1);
+                entryTitles = Arrays.copyOf(entryTitles, entryCount + 1);
+            }
+            entryIds[entryCount] = id;
+            entryTitles[entryCount] = title;
+            entryCount++;
+        }
+
+        void removeEntry(long id) {
+            for (int i = 0; i < entryCount; i++) {
+                if (entryIds[i] == id) {
+                    System.arraycopy(entryIds, i + 1, entryIds, i, entryCount - i - 1);
+                    System.arraycopy(entryTitles, i + 1, entryTitles, i, entryCount - i - 1);
+                    entryCount--;
+                    entryTitles[entryCount] = null;
+                    if (entryCount == 0) {
+                        entryIds = null;
+                        entryTitles = null;
+                    }
+                    return;
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return childCount == 0 && entryCount == 0;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.springboot.blog.search;
+
+import com.springboot.blog.entity.Post;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//in-memory trigram index that answers the same question as the LIKE '%keyword%' search:
+//which posts contain the keyword as a substring of their title, description or content (case-insensitive).
+//the posting lists of the keyword's trigrams are intersected and only the surviving candidates are checked
+//against the post text, so a search never scans every post.
+//the price is heap: the lowercased text of every post is kept for that check, on top of the posting lists, so the
+//index costs a little more than the posts' text itself. post.search.trigram.memory reports the estimate.
+@Component
+public class TrigramIndex {
+    public static final String SUBSTRING_MODE = "substring";
+
+    private static final int GRAM = 3;
+    //rough per-object sizes on a 64-bit JVM with compressed oops, used for the footprint estimate
+    private static final long OBJECT_HEADER = 16;
+    private static final long ARRAY_HEADER = 16;
+    private static final long REFERENCE = 4;
+    //a hash map node plus its boxed Long key
+    private static final long MAP_ENTRY = OBJECT_HEADER + 4 * REFERENCE + OBJECT_HEADER + 8;
+    //joins the fields of a post, a keyword never contains it so a match cannot span two fields
+    private static final char FIELD_SEPARATOR = '\0';
+
+    private final boolean enabled;
+    private final int maxResults;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    //trigram (three chars packed into a long) -> ids of the posts containing it
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    //lowercased fields of every indexed post, used to verify candidates and to find its trigrams on update
+    private final Map<Long, String> texts = new HashMap<>();
+    private volatile boolean ready;
+
+    public TrigramIndex(@Value("${app.search.mode:" + PostSearchIndex.SQL_MODE + "}") String searchMode,
+                        @Value("${app.search.max-results:100}") int maxResults,
+                        MeterRegistry meterRegistry) {
+        this.enabled = SUBSTRING_MODE.equalsIgnoreCase(searchMode);
+        this.maxResults = maxResults;
+        if (enabled) {
+            Gauge.builder("post.search.trigram.memory", this, TrigramIndex::estimatedMemoryBytes)
+                    .description("Estimated heap used by the substring search index: post texts and trigram posting lists")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+    }
+
+    public boolean isAvailable() {
+        return enabled && ready;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    //upper bound on the number of hits a single search returns
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    //keywords shorter than a trigram, or holding LIKE wildcards, are left to the SQL query
+    public boolean supports(String keyword) {
+        return keyword != null && keyword.length() >= GRAM
+                && keyword.indexOf('%') < 0 && keyword.indexOf('_') < 0 && keyword.indexOf(FIELD_SEPARATOR) < 0;
+    }
+
+    public void index(Post post) {
+        String text = text(post);
+        Set<Long> grams = trigrams(text);
+        lock.writeLock().lock();
+        try {
+            removePostings(post.getId());
+            texts.put(post.getId(), text);
+            for (Long gram : grams) {
+                postings.computeIfAbsent(gram, g -> new PostingList()).add(post.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long postId) {
+        lock.writeLock().lock();
+        try {
+            removePostings(postId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removePostings(Long postId) {
+        String text = texts.remove(postId);
+        if (text == null) {
+            return;
+        }
+        for (Long gram : trigrams(text)) {
+            PostingList posts = postings.get(gram);
+            if (posts != null && posts.remove(postId) && posts.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    //ids of the first limit posts containing the keyword, in ascending id order; call supports(keyword) first
+    public List<Long> search(String keyword, int limit) {
+        String needle = keyword.toLowerCase(Locale.ROOT);
+        Set<Long> grams = trigrams(needle);
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(grams.size());
+            for (Long gram : grams) {
+                PostingList posts = postings.get(gram);
+                if (posts == null) {
+                    return new ArrayList<>();
+                }
+                lists.add(posts);
+            }
+            //walk the shortest list, probe the others, then confirm the substring on the survivors
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            PostingList shortest = lists.get(0);
+            List<Long> matches = new ArrayList<>();
+            candidates:
+            for (int i = 0; i < shortest.size && matches.size() < limit; i++) {
+                long postId = shortest.ids[i];
+                for (int j = 1; j < lists.size(); j++) {
+                    if (!lists.get(j).contains(postId)) {
+                        continue candidates;
+                    }
+                }
+                if (texts.get(postId).contains(needle)) {
+                    matches.add(postId);
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return texts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //texts and posting lists; the lowercased texts are copies held by nothing else
+    public long estimatedMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (String text : texts.values()) {
+                bytes += MAP_ENTRY + OBJECT_HEADER + 8 + ARRAY_HEADER + text.length();
+            }
+            for (PostingList posts : postings.values()) {
+                bytes += MAP_ENTRY + OBJECT_HEADER + REFERENCE + 4 + ARRAY_HEADER + 8L * posts.ids.length;
+            }
+            return bytes + 2 * REFERENCE * (texts.size() + postings.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String text(Post post) {
+        StringBuilder text = new StringBuilder();
+        for (String field : new String[]{post.getTitle(), post.getDescription(), post.getContent()}) {
+            if (field != null) {
+                text.append(field.toLowerCase(Locale.ROOT));
+            }
+            text.append(FIELD_SEPARATOR);
+        }
+        return text.toString();
+    }
+
+    //trigrams crossing a field separator are skipped, they can never be part of a keyword
+    private static Set<Long> trigrams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            char a = text.charAt(i);
+            char b = text.charAt(i + 1);
+            char c = text.charAt(i + 2);
+            if (a != FIELD_SEPARATOR && b != FIELD_SEPARATOR && c != FIELD_SEPARATOR) {
+                grams.add(((long) a << 32) | ((long) b << 16) | c);
+            }
+        }
+        return grams;
+    }
+
+    //sorted, growable array of post ids; ids mostly arrive in ascending order, so adds are usually appends
+    private static final class PostingList {
+        private long[] ids = new long[2];
+        private int size;
+
+        void add(long id) {
+            int index = size == 0 || ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.springboot.blog.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+//picks the BCrypt strength whose hash time on this machine is closest to a target without exceeding it.
+//hashes already stored keep working whatever the strength, BCrypt records its cost in every hash.
+public final class BCryptCalibration {
+    //the BCryptPasswordEncoder default, calibration never goes below it
+    public static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 16;
+
+    private BCryptCalibration() {
+    }
+
+    public static int strengthFor(long targetMillis) {
+        int strength = MIN_STRENGTH;
+        //each step doubles the cost, so stop as soon as the next one would overshoot
+        while (strength < MAX_STRENGTH && hashMillis(strength) * 2 <= targetMillis) {
+            strength++;
+        }
+        return strength;
+    }
+
+    private static long hashMillis(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        //the first hash also pays for class loading and JIT, time the second one
+        encoder.encode("calibration");
+        long start = System.nanoTime();
+        encoder.encode("calibration");
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
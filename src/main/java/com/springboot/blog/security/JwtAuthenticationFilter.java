@@ -1,12 +1,16 @@
 package com.springboot.blog.security;
 
 import ch.qos.logback.core.util.StringUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -15,15 +19,22 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
+//authenticates requests carrying a bearer token.
+//by default the authorities come from the token's roles claim and no user lookup is made; with
+//app.jwt.revalidate-authorities=true they come from the user details cache, so revoked roles stop working within its ttl.
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtTokenProvider jwtTokenProvider;
     private UserDetailsService userDetailsService;
+    private boolean revalidateAuthorities;
 
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService,
+                                   @Value("${app.jwt.revalidate-authorities:false}") boolean revalidateAuthorities) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
+        this.revalidateAuthorities = revalidateAuthorities;
     }
 
     @Override
@@ -31,13 +42,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // get JWT token from http request
         String token = getTokenFromRequest(request);
 
-        // validate token
-        if(StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)){
-            // get username from token
-            String username = jwtTokenProvider.getUsername(token);
+        if(StringUtils.hasText(token)){
+            // validate token, one parse (or cache hit) per request; revoked and refresh tokens are rejected
+            Claims claims = jwtTokenProvider.getAccessClaims(token);
 
-            // load the user associated with token
-            UserDetails userDetails= userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = userDetails(claims);
 
             UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
                     userDetails, null, userDetails.getAuthorities());
@@ -50,6 +59,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request,response);
     }
 
+    private UserDetails userDetails(Claims claims){
+        String username = claims.getSubject();
+        List<GrantedAuthority> authorities = revalidateAuthorities ? null : jwtTokenProvider.getAuthorities(claims);
+        if(authorities == null){
+            // revalidation mode, and tokens issued before roles were embedded, need the user lookup
+            return userDetailsService.loadUserByUsername(username);
+        }
+        return new User(username, "", authorities);
+    }
+
     private String getTokenFromRequest(HttpServletRequest request){
         String bearerToken = request.getHeader("Authorization");
         if(StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")){
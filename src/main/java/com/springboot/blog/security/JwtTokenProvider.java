@@ -1,7 +1,11 @@
 package com.springboot.blog.security;
 
+import com.springboot.blog.cache.JwtClaimsCache;
+import com.springboot.blog.cache.TokenDenylist;
 import com.springboot.blog.exception.BlogAPIException;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
@@ -10,53 +14,145 @@ import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
-import java.security.Key;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenProvider {
-    @Value("${app.jwt-secret}")
-    private String jwtSecret;
-    @Value("${app-jwt-expiration-milliseconds}")
-    private long jwtExpirationDate;
+    //role names of the user, e.g. ["ROLE_ADMIN","ROLE_USER"], so requests can be authorized without a user lookup
+    public static final String ROLES_CLAIM = "roles";
+    //"refresh" on refresh tokens, which only obtain new access tokens and are never accepted as a bearer token
+    public static final String TYPE_CLAIM = "typ";
+    public static final String REFRESH_TYPE = "refresh";
+
+    private final long jwtExpirationDate;
+    private final long refreshExpirationDate;
+    //the key and the parser are immutable and thread-safe, so they are built once instead of per token
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final JwtClaimsCache claimsCache;
+    private final TokenDenylist tokenDenylist;
+
+    public JwtTokenProvider(@Value("${app.jwt-secret}") String jwtSecret,
+                            @Value("${app.jwt.access-expiration-milliseconds:900000}") long jwtExpirationDate,
+                            @Value("${app-jwt-expiration-milliseconds}") long refreshExpirationDate,
+                            JwtClaimsCache claimsCache, TokenDenylist tokenDenylist) {
+        this.jwtExpirationDate = jwtExpirationDate;
+        this.refreshExpirationDate = refreshExpirationDate;
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.claimsCache = claimsCache;
+        this.tokenDenylist = tokenDenylist;
+    }
 
     public String generateToken(Authentication authentication){
         String username = authentication.getName();
         Date currentDate = new Date();
         Date expireDate = new Date(currentDate.getTime()+jwtExpirationDate);
 
+        List<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .sorted()
+                .collect(Collectors.toList());
+
         String token = Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(username)
+                .claim(ROLES_CLAIM, roles)
                 .issuedAt(new Date())
                 .expiration(expireDate)
-                .signWith(key())
+                .signWith(key)
                 .compact();
         return token;
     }
 
-    private Key key(){
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    //long-lived and without roles: they are read again from the user whenever a new access token is issued
+    public String generateRefreshToken(Authentication authentication){
+        Date currentDate = new Date();
+        return Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject(authentication.getName())
+                .claim(TYPE_CLAIM, REFRESH_TYPE)
+                .issuedAt(currentDate)
+                .expiration(new Date(currentDate.getTime()+refreshExpirationDate))
+                .signWith(key)
+                .compact();
+    }
+
+    //verifies the signature and expiry once and returns the claims; a token seen before is answered from the cache.
+    //revocation is checked on every call, against the in-memory denylist
+    public Claims getClaims(String token){
+        Claims claims = claimsCache.get(token, this::parseClaims);
+        if(tokenDenylist.isRevoked(claims.getId())){
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST, "Revoked JWT token");
+        }
+        return claims;
+    }
+
+    //claims of a token accepted as a bearer token
+    public Claims getAccessClaims(String token){
+        Claims claims = getClaims(token);
+        if(isRefreshToken(claims)){
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST, "Invalid JWT Token");
+        }
+        return claims;
+    }
+
+    //refresh tokens are also checked against the revoked_tokens table, a logout on another instance may not have
+    //reached this instance's denylist yet
+    public Claims getRefreshClaims(String token){
+        Claims claims = getClaims(token);
+        if(!isRefreshToken(claims)){
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST, "Invalid refresh token");
+        }
+        if(tokenDenylist.isRevokedInStore(claims.getId())){
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST, "Revoked JWT token");
+        }
+        return claims;
+    }
+
+    //tokens issued before ids were added cannot be revoked one by one, they run out on their own
+    public void revoke(String token){
+        Claims claims = getClaims(token);
+        if(claims.getId() != null){
+            tokenDenylist.revoke(claims.getId(), claims.getExpiration().toInstant());
+        }
+    }
+
+    private static boolean isRefreshToken(Claims claims){
+        return REFRESH_TYPE.equals(claims.get(TYPE_CLAIM, String.class));
     }
 
     public String getUsername(String token){
-        return Jwts.parser()
-                .verifyWith((SecretKey) key())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        return getClaims(token).getSubject();
+    }
+
+    //authorities carried by the token, or null for tokens issued without the roles claim
+    public List<GrantedAuthority> getAuthorities(Claims claims){
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if(roles == null){
+            return null;
+        }
+        return roles.stream()
+                .map(role -> new SimpleGrantedAuthority(String.valueOf(role)))
+                .collect(Collectors.toList());
     }
 
     public boolean validateToken(String token){
+        getClaims(token);
+        return true;
+    }
+
+    private Claims parseClaims(String token){
         try{
-            Jwts.parser()
-                    .verifyWith((SecretKey) key())
-                    .build()
-                    .parse(token);
-            return true;
+            return parser.parseSignedClaims(token).getPayload();
         }catch (MalformedJwtException malformedJwtException){
             throw new BlogAPIException(HttpStatus.BAD_REQUEST, "Invalid JWT Token");
         }catch (ExpiredJwtException expiredJwtException){
@@ -0,0 +1,114 @@
+package com.springboot.blog.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//limits each client per route group: login/registration (bcrypt), signup availability checks (a username and email
+//oracle, kept tight against enumeration), post search, and the rest of the api.
+//every request spends a token of its client ip, an authenticated one also a token of its jwt subject, so neither
+//switching addresses nor sharing one with other users gets around the limit. runs after JwtAuthenticationFilter to
+//know the subject. the ip is the connection's; behind a proxy set server.forward-headers-strategy so it is the client's.
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    static final String AUTH = "auth";
+    static final String AVAILABILITY = "availability";
+    static final String SEARCH = "search";
+    static final String API = "api";
+
+    private final boolean enabled;
+    private final Map<String, RateLimiter> limiters;
+    private final Map<String, Counter> rejections;
+
+    @Autowired
+    public RateLimitFilter(@Value("${app.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${app.rate-limit.auth.capacity:10}") int authCapacity,
+                           @Value("${app.rate-limit.auth.refill-per-second:0.2}") double authRefill,
+                           @Value("${app.rate-limit.availability.capacity:20}") int availabilityCapacity,
+                           @Value("${app.rate-limit.availability.refill-per-second:1}") double availabilityRefill,
+                           @Value("${app.rate-limit.search.capacity:20}") int searchCapacity,
+                           @Value("${app.rate-limit.search.refill-per-second:5}") double searchRefill,
+                           @Value("${app.rate-limit.api.capacity:200}") int apiCapacity,
+                           @Value("${app.rate-limit.api.refill-per-second:50}") double apiRefill,
+                           @Value("${app.rate-limit.max-clients:100000}") long maxClients,
+                           MeterRegistry meterRegistry) {
+        this(enabled, Map.of(AUTH, new RateLimiter(authCapacity, authRefill, maxClients),
+                AVAILABILITY, new RateLimiter(availabilityCapacity, availabilityRefill, maxClients),
+                SEARCH, new RateLimiter(searchCapacity, searchRefill, maxClients),
+                API, new RateLimiter(apiCapacity, apiRefill, maxClients)), meterRegistry);
+    }
+
+    RateLimitFilter(boolean enabled, Map<String, RateLimiter> limiters, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.limiters = limiters;
+        // exposes http.rate.limited{group=auth|availability|search|api} under /actuator/metrics
+        this.rejections = Map.of(AUTH, rejectionCounter(meterRegistry, AUTH),
+                AVAILABILITY, rejectionCounter(meterRegistry, AVAILABILITY),
+                SEARCH, rejectionCounter(meterRegistry, SEARCH),
+                API, rejectionCounter(meterRegistry, API));
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String group) {
+        return Counter.builder("http.rate.limited").tag("group", group)
+                .description("Requests rejected with 429 by the rate limiter").register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String group = enabled ? routeGroup(request) : null;
+        if (group != null) {
+            RateLimiter limiter = limiters.get(group);
+            long wait = limiter.tryAcquire("ip:" + request.getRemoteAddr());
+            String subject = subject();
+            if (wait == 0 && subject != null) {
+                wait = limiter.tryAcquire("sub:" + subject);
+            }
+            if (wait > 0) {
+                rejections.get(group).increment();
+                //whole seconds, rounded up
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999)));
+                response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests, try again later");
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    static String routeGroup(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/auth/availability")) {
+            return AVAILABILITY;
+        }
+        if (path.startsWith("/api/auth/")) {
+            return AUTH;
+        }
+        if (path.startsWith("/api/posts/search")) {
+            return SEARCH;
+        }
+        return path.startsWith("/api/") ? API : null;
+    }
+
+    private static String subject() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,72 @@
+package com.springboot.blog.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+//token buckets per client for one route group: capacity requests at once, refilled at a steady rate.
+//a bucket is a single timestamp updated by CAS (the generic cell rate algorithm), so taking a token never locks, and
+//the buckets live in a caffeine map whose reads are lock-free and whose bookkeeping is striped across buffers.
+//a bucket idle for as long as a full refill takes is full again and is evicted, it would behave the same as a new one.
+public class RateLimiter {
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+    private final Cache<String, Bucket> buckets;
+
+    public RateLimiter(int capacity, double refillPerSecond, long maxClients) {
+        this(capacity, refillPerSecond, maxClients, System::nanoTime);
+    }
+
+    RateLimiter(int capacity, double refillPerSecond, long maxClients, LongSupplier clock) {
+        if (capacity <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate limit needs a capacity and refill rate above zero");
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.burstNanos = intervalNanos * capacity;
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(burstNanos))
+                .ticker(clock::getAsLong)
+                .build();
+    }
+
+    //0 when a token was taken, otherwise the nanoseconds until the next one is available
+    public long tryAcquire(String client) {
+        long now = clock.getAsLong();
+        return buckets.get(client, key -> new Bucket(now)).tryAcquire(now);
+    }
+
+    public long clientCount() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    private final class Bucket {
+        //when the bucket will be full again; each token taken pushes it one interval further
+        private final AtomicLong fullAt;
+
+        private Bucket(long now) {
+            this.fullAt = new AtomicLong(now);
+        }
+
+        private long tryAcquire(long now) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + intervalNanos;
+                //more than capacity tokens owed: empty
+                long wait = next - burstNanos - now;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
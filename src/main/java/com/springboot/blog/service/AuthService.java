@@ -1,9 +1,14 @@
 package com.springboot.blog.service;
 
+import com.springboot.blog.payload.AvailabilityDTO;
+import com.springboot.blog.payload.JwtAuthResponse;
 import com.springboot.blog.payload.LoginDTO;
 import com.springboot.blog.payload.RegisterDTO;
 
 public interface AuthService {
-    String login(LoginDTO loginDTO);
+    JwtAuthResponse login(LoginDTO loginDTO);
+    JwtAuthResponse refresh(String refreshToken);
+    void logout(String refreshToken, String accessToken);
     String register(RegisterDTO registerDTO);
+    AvailabilityDTO checkAvailability(String username, String email);
 }
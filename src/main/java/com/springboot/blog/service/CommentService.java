@@ -1,12 +1,11 @@
 package com.springboot.blog.service;
 
 import com.springboot.blog.payload.CommentDTO;
-
-import java.util.List;
+import com.springboot.blog.payload.CommentResponse;
 
 public interface CommentService {
     CommentDTO createComment(long postId, CommentDTO commentDTO);
-    List<CommentDTO> getCommentsByPostId(long postId);
+    CommentResponse getCommentsByPostId(long postId, Long cursor, int pageSize);
     CommentDTO getCommentById(Long postId, Long commentId);
     CommentDTO updateComment(Long postId, Long commentId, CommentDTO commentRequest);
     void deleteComment(Long postId, Long commentId);
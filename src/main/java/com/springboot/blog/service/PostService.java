@@ -8,9 +8,19 @@ import java.util.List;
 public interface PostService {
     PostDTO createPost(PostDTO postDTO);
     PostResponse getAllPosts(int pageNo, int pageSize, String sortBy, String sortDir);
+    PostResponse getAllPostsWithLatestComments(int pageNo, int pageSize, String sortBy, String sortDir, int latestComments);
+    PostResponse getAllPostsSlice(int pageNo, int pageSize, String sortBy, String sortDir, boolean withTotal);
+    PostResponse getPostsByCursor(String cursor, int pageSize, String sortBy, String sortDir);
+    PostResponse getAllPostSummaries(int pageNo, int pageSize, String sortBy, String sortDir);
     PostDTO getPostById(Long id);
+    PostDTO getPostByIdWithLatestComments(Long id, int latestComments);
     PostDTO updatePost(PostDTO postDTO, Long id);
     void deletePostById(Long id);
     List<PostDTO> getPostsByCategory(Long categoryId);
+    List<PostDTO> getPostSummariesByCategory(Long categoryId);
     List<PostDTO> searchPost(String keyword);
+    List<PostDTO> searchPost(String keyword, int pageNo, int pageSize);
+    List<PostDTO> searchPostSummaries(String keyword);
+    List<PostDTO> searchPostSummaries(String keyword, int pageNo, int pageSize);
+    List<String> suggestTitles(String prefix, int limit);
 }
@@ -1,59 +1,101 @@
 package com.springboot.blog.service.impl;
 
+import com.springboot.blog.cache.RoleCache;
+import com.springboot.blog.cache.UserAvailabilityFilter;
 import com.springboot.blog.entity.Role;
 import com.springboot.blog.entity.User;
 import com.springboot.blog.exception.BlogAPIException;
+import com.springboot.blog.payload.AvailabilityDTO;
+import com.springboot.blog.payload.JwtAuthResponse;
 import com.springboot.blog.payload.LoginDTO;
 import com.springboot.blog.payload.RegisterDTO;
-import com.springboot.blog.repository.RoleRepository;
 import com.springboot.blog.repository.UserRepository;
 import com.springboot.blog.security.JwtTokenProvider;
 import com.springboot.blog.service.AuthService;
+import io.jsonwebtoken.Claims;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 
 @Service
 public class AuthServiceImpl implements AuthService {
     private AuthenticationManager authenticationManager;
     private UserRepository userRepository;
-    private RoleRepository roleRepository;
+    private RoleCache roleCache;
     private PasswordEncoder passwordEncoder;
     private JwtTokenProvider jwtTokenProvider;
+    private UserAvailabilityFilter userAvailabilityFilter;
+    private UserDetailsService userDetailsService;
 
-    public AuthServiceImpl(AuthenticationManager authenticationManager, UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder, JwtTokenProvider jwtTokenProvider) {
+    public AuthServiceImpl(AuthenticationManager authenticationManager, UserRepository userRepository, RoleCache roleCache, PasswordEncoder passwordEncoder, JwtTokenProvider jwtTokenProvider,
+                           UserAvailabilityFilter userAvailabilityFilter, UserDetailsService userDetailsService) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleCache = roleCache;
         this.passwordEncoder = passwordEncoder;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.userAvailabilityFilter = userAvailabilityFilter;
+        this.userDetailsService = userDetailsService;
     }
 
     @Override
-    public String login(LoginDTO loginDTO) {
+    public JwtAuthResponse login(LoginDTO loginDTO) {
         Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(loginDTO.getUsernameOrEmail(), loginDTO.getPassword()));
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String token = jwtTokenProvider.generateToken(authentication);
-        return token;
+
+        JwtAuthResponse jwtAuthResponse = new JwtAuthResponse();
+        jwtAuthResponse.setAccessToken(jwtTokenProvider.generateToken(authentication));
+        jwtAuthResponse.setRefreshToken(jwtTokenProvider.generateRefreshToken(authentication));
+        return jwtAuthResponse;
     }
 
+    //a new access token without the password (and its bcrypt) again; roles come from the (cached) user, so a role
+    //change reaches the next access token
     @Override
-    public String register(RegisterDTO registerDTO) {
-        if(userRepository.existsByUsername(registerDTO.getUsername())){
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,"Username already exits");
+    public JwtAuthResponse refresh(String refreshToken) {
+        Claims claims = jwtTokenProvider.getRefreshClaims(refreshToken);
+        UserDetails userDetails;
+        try{
+            userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        }catch (UsernameNotFoundException exception){
+            throw new BlogAPIException(HttpStatus.UNAUTHORIZED,"User no longer exists");
         }
+        Authentication authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+
+        JwtAuthResponse jwtAuthResponse = new JwtAuthResponse();
+        jwtAuthResponse.setAccessToken(jwtTokenProvider.generateToken(authentication));
+        jwtAuthResponse.setRefreshToken(refreshToken);
+        return jwtAuthResponse;
+    }
 
-        if(userRepository.existsByEmail(registerDTO.getEmail())){
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,"Email Id already exits");
+    //the access token is optional, without it it stays valid until its (short) expiry
+    @Override
+    public void logout(String refreshToken, String accessToken) {
+        //checks that it is a refresh token, an access token alone does not log out
+        jwtTokenProvider.getRefreshClaims(refreshToken);
+        jwtTokenProvider.revoke(refreshToken);
+        if(accessToken != null){
+            jwtTokenProvider.revoke(accessToken);
         }
+    }
 
+    //no existence checks up front: the unique constraints reject a duplicate, also between two concurrent signups,
+    //and the signup costs the user and users_roles inserts only
+    @Override
+    public String register(RegisterDTO registerDTO) {
         User user = new User();
         user.setName(registerDTO.getName());
         user.setUsername(registerDTO.getUsername());
@@ -61,11 +103,63 @@ public class AuthServiceImpl implements AuthService {
         user.setPassword(passwordEncoder.encode(registerDTO.getPassword()));
 
         Set<Role> roles = new HashSet<>();
-        Role userRole= roleRepository.findByName("ROLE_USER").get();
-        roles.add(userRole);
+        roles.add(roleCache.getReference("ROLE_USER"));
         user.setRoles(roles);
 
-        userRepository.save(user);
+        try{
+            userRepository.save(user);
+        }catch (DataIntegrityViolationException exception){
+            BlogAPIException duplicate = duplicateUser(exception, registerDTO);
+            throw duplicate != null ? duplicate : exception;
+        }
+        userAvailabilityFilter.add(user.getUsername(), user.getEmail());
         return "register user successfully";
     }
+
+    //only values the bloom filter might have seen are looked up
+    @Override
+    public AvailabilityDTO checkAvailability(String username, String email) {
+        if((username == null || username.isBlank()) && (email == null || email.isBlank())){
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST,"Username or Email is required");
+        }
+        AvailabilityDTO availability = new AvailabilityDTO();
+        if(username != null && !username.isBlank()){
+            availability.setUsernameAvailable(!(userAvailabilityFilter.mightContainUsername(username)
+                    && userRepository.existsByUsername(username)));
+        }
+        if(email != null && !email.isBlank()){
+            availability.setEmailAvailable(!(userAvailabilityFilter.mightContainEmail(email)
+                    && userRepository.existsByEmail(email)));
+        }
+        return availability;
+    }
+
+    //null when neither the username nor the email is taken, the violation is then something else
+    private BlogAPIException duplicateUser(DataIntegrityViolationException exception, RegisterDTO registerDTO){
+        String constraint = constraintName(exception);
+        boolean usernameTaken = constraint.contains(User.USERNAME_CONSTRAINT.toLowerCase(Locale.ROOT));
+        boolean emailTaken = constraint.contains(User.EMAIL_CONSTRAINT.toLowerCase(Locale.ROOT));
+        if(!usernameTaken && !emailTaken){
+            // constraint created under another name (e.g. by an older schema), ask which value is taken
+            usernameTaken = userRepository.existsByUsername(registerDTO.getUsername());
+            emailTaken = !usernameTaken && userRepository.existsByEmail(registerDTO.getEmail());
+        }
+        if(usernameTaken){
+            return new BlogAPIException(HttpStatus.BAD_REQUEST,"Username already exits");
+        }
+        if(emailTaken){
+            return new BlogAPIException(HttpStatus.BAD_REQUEST,"Email Id already exits");
+        }
+        return null;
+    }
+
+    //lowercased name of the violated constraint as reported by the database, empty when the driver does not tell
+    private static String constraintName(Throwable exception){
+        for(Throwable cause = exception; cause != null; cause = cause.getCause()){
+            if(cause instanceof ConstraintViolationException constraintViolation && constraintViolation.getConstraintName() != null){
+                return constraintViolation.getConstraintName().toLowerCase(Locale.ROOT);
+            }
+        }
+        return "";
+    }
 }
@@ -1,11 +1,15 @@
 package com.springboot.blog.service.impl;
 
+import com.springboot.blog.cache.PostCache;
+import com.springboot.blog.cache.PostCountCache;
 import com.springboot.blog.entity.Category;
 import com.springboot.blog.exception.ResourceNotFoundException;
+import com.springboot.blog.mapper.CategoryMapper;
 import com.springboot.blog.payload.CategoryDTO;
 import com.springboot.blog.repository.CategoryRepository;
+import com.springboot.blog.repository.PostRepository;
+import com.springboot.blog.search.PostIndexer;
 import com.springboot.blog.service.CategoryService;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -14,30 +18,37 @@ import java.util.stream.Collectors;
 @Service
 public class CategoryServiceImpl implements CategoryService {
     private CategoryRepository categoryRepository;
-    private ModelMapper mapper;
+    private PostCache postCache;
+    private PostRepository postRepository;
+    private PostIndexer postIndexer;
+    private PostCountCache postCountCache;
 
-    public CategoryServiceImpl(CategoryRepository categoryRepository, ModelMapper mapper) {
+    public CategoryServiceImpl(CategoryRepository categoryRepository, PostCache postCache, PostRepository postRepository, PostIndexer postIndexer,
+                               PostCountCache postCountCache) {
         this.categoryRepository = categoryRepository;
-        this.mapper = mapper;
+        this.postCache = postCache;
+        this.postRepository = postRepository;
+        this.postIndexer = postIndexer;
+        this.postCountCache = postCountCache;
     }
 
     @Override
     public CategoryDTO addCategory(CategoryDTO categoryDTO) {
-        Category category = mapper.map(categoryDTO, Category.class);
+        Category category = CategoryMapper.toEntity(categoryDTO);
         Category savedCategory = categoryRepository.save(category);
-        return mapper.map(savedCategory,CategoryDTO.class);
+        return CategoryMapper.toDTO(savedCategory);
     }
 
     @Override
     public CategoryDTO getCategory(Long categoryId) {
         Category category = categoryRepository.findById(categoryId).orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
-        return mapper.map(category,CategoryDTO.class);
+        return CategoryMapper.toDTO(category);
     }
 
     @Override
     public List<CategoryDTO> getAllCategories() {
         List<Category> categories = categoryRepository.findAll();
-        return categories.stream().map((category) -> mapper.map(category, CategoryDTO.class)).collect(Collectors.toList());
+        return categories.stream().map(CategoryMapper::toDTO).collect(Collectors.toList());
     }
 
     @Override
@@ -46,12 +57,17 @@ public class CategoryServiceImpl implements CategoryService {
         category.setName(categoryDTO.getName());
         category.setDescription(categoryDTO.getDescription());
         Category updatedCategory = categoryRepository.save(category);
-        return mapper.map(updatedCategory, CategoryDTO.class);
+        return CategoryMapper.toDTO(updatedCategory);
     }
 
     @Override
     public void deleteCategory(Long categoryId) {
         Category category = categoryRepository.findById(categoryId).orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
+        List<Long> postIds = postRepository.findIdsByCategoryId(categoryId);
         categoryRepository.delete(category);
+        //deleting a category cascades to its posts
+        postCache.clear();
+        postCountCache.subtract(postIds.size());
+        postIds.forEach(postIndexer::onDeleted);
     }
 }
@@ -1,90 +1,113 @@
 package com.springboot.blog.service.impl;
 
+import com.springboot.blog.cache.PostCache;
 import com.springboot.blog.entity.Comment;
 import com.springboot.blog.entity.Post;
 import com.springboot.blog.exception.BlogAPIException;
 import com.springboot.blog.exception.ResourceNotFoundException;
+import com.springboot.blog.mapper.CommentMapper;
 import com.springboot.blog.payload.CommentDTO;
+import com.springboot.blog.payload.CommentResponse;
 import com.springboot.blog.repository.CommentRepository;
 import com.springboot.blog.repository.PostRepository;
 import com.springboot.blog.service.CommentService;
-import org.modelmapper.ModelMapper;
+import com.springboot.blog.utils.AppConstants;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class CommentServiceImpl implements CommentService {
     private CommentRepository commentRepository;
     private PostRepository postRepository;
-    private ModelMapper mapper;
+    private PostCache postCache;
 
-    public CommentServiceImpl(CommentRepository commentRepository, PostRepository postRepository, ModelMapper mapper) {
+    public CommentServiceImpl(CommentRepository commentRepository, PostRepository postRepository, PostCache postCache) {
         this.commentRepository = commentRepository;
         this.postRepository = postRepository;
-        this.mapper=mapper;
+        this.postCache = postCache;
     }
 
+    //the comment and the post's comment count are written in one transaction
     @Override
+    @Transactional
     public CommentDTO createComment(long postId, CommentDTO commentDTO) {
         Comment comment = mapToEntity(commentDTO);
         Post post = postRepository.findById(postId).orElseThrow(()->new ResourceNotFoundException("post","id", postId));
         comment.setPost(post);
         Comment newComment =commentRepository.save(comment);
+        postRepository.addToCommentCount(postId, 1);
+        //the cached post embeds its comments
+        postCache.evict(postId);
         return mapToDTO(newComment);
     }
 
     @Override
-    public List<CommentDTO> getCommentsByPostId(long postId) {
-        List<Comment> comments = commentRepository.findByPostId(postId);
-        return comments.stream().map(comment -> mapToDTO(comment)).collect(Collectors.toList());
+    public CommentResponse getCommentsByPostId(long postId, Long cursor, int pageSize) {
+        if (pageSize < 1) {
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST, "Page size must be at least 1");
+        }
+        //hard cap, however many comments a post has a response stays small
+        int size = Math.min(pageSize, AppConstants.MAX_COMMENT_PAGE_SIZE);
+        //one row more than the page tells whether another page follows
+        List<CommentDTO> comments = commentRepository.findPageByPostId(postId, cursor == null ? 0 : cursor, Limit.of(size + 1));
+        boolean last = comments.size() <= size;
+        if (!last) {
+            comments = comments.subList(0, size);
+        }
+        return new CommentResponse(comments, size, last, last ? null : comments.get(size - 1).getId());
     }
 
     @Override
     public CommentDTO getCommentById(Long postId, Long commentId) {
-        Post post = postRepository.findById(postId).orElseThrow(()->new ResourceNotFoundException("post","id", postId));
-        Comment comment = commentRepository.findById(commentId).orElseThrow(()->new ResourceNotFoundException("comment","id", commentId));
-        if(!comment.getPost().getId().equals(post.getId())){
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,"Comment does not belong to the post");
-        }
-        return mapToDTO(comment);
+        return mapToDTO(findCommentOfPost(postId, commentId));
     }
 
+    //in one transaction the comment read for the check stays managed: the update is flushed from it without another select
     @Override
+    @Transactional
     public CommentDTO updateComment(Long postId, Long commentId, CommentDTO commentRequest) {
-        Post post = postRepository.findById(postId).orElseThrow(()->new ResourceNotFoundException("post","id", postId));
-        Comment comment = commentRepository.findById(commentId).orElseThrow(()->new ResourceNotFoundException("comment","id", commentId));
-        if(!comment.getPost().getId().equals(post.getId())){
-            throw new BlogAPIException(HttpStatus.BAD_REQUEST,"Comment does not belong to the post");
-        }
+        Comment comment = findCommentOfPost(postId, commentId);
 
         comment.setName(commentRequest.getName());
         comment.setEmail(commentRequest.getEmail());
         comment.setBody(commentRequest.getBody());
         Comment updatedComment = commentRepository.save(comment);
+        postCache.evict(postId);
         return mapToDTO(updatedComment);
     }
 
     @Override
+    @Transactional
     public void deleteComment(Long postId, Long commentId) {
-        Post post = postRepository.findById(postId).orElseThrow(()->new ResourceNotFoundException("post","id", postId));
-        Comment comment = commentRepository.findById(commentId).orElseThrow(()->new ResourceNotFoundException("comment","id", commentId));
-        if(!comment.getPost().getId().equals(post.getId())){
+        Comment comment = findCommentOfPost(postId, commentId);
+        commentRepository.delete(comment);
+        postRepository.addToCommentCount(postId, -1);
+        postCache.evict(postId);
+    }
+
+    //a single query tells a missing post, a missing comment and a comment of another post apart, in that order
+    private Comment findCommentOfPost(Long postId, Long commentId) {
+        CommentRepository.CommentOfPost commentOfPost = commentRepository.findCommentOfPost(postId, commentId)
+                .orElseThrow(()->new ResourceNotFoundException("post","id", postId));
+        if(commentOfPost.getComment() == null){
+            throw new ResourceNotFoundException("comment","id", commentId);
+        }
+        if(!postId.equals(commentOfPost.getCommentPostId())){
             throw new BlogAPIException(HttpStatus.BAD_REQUEST,"Comment does not belong to the post");
         }
-        commentRepository.delete(comment);
+        return commentOfPost.getComment();
     }
 
 
     private CommentDTO mapToDTO(Comment comment){
-        CommentDTO commentDTO = mapper.map(comment,CommentDTO.class);
-        return commentDTO;
+        return CommentMapper.toDTO(comment);
     }
 
     private Comment mapToEntity(CommentDTO commentDTO){
-        Comment comment = mapper.map(commentDTO,Comment.class);
-        return comment;
+        return CommentMapper.toEntity(commentDTO);
     }
 }
@@ -1,21 +1,44 @@
 package com.springboot.blog.service.impl;
 
+import com.springboot.blog.cache.PostCache;
+import com.springboot.blog.cache.PostCountCache;
 import com.springboot.blog.entity.Category;
 import com.springboot.blog.entity.Post;
+import com.springboot.blog.exception.BlogAPIException;
 import com.springboot.blog.exception.ResourceNotFoundException;
+import com.springboot.blog.mapper.PostMapper;
+import com.springboot.blog.payload.CommentDTO;
 import com.springboot.blog.payload.PostDTO;
 import com.springboot.blog.payload.PostResponse;
 import com.springboot.blog.repository.CategoryRepository;
+import com.springboot.blog.repository.CommentRepository;
 import com.springboot.blog.repository.PostRepository;
+import com.springboot.blog.search.PostIndexer;
+import com.springboot.blog.search.PostSearchIndex;
+import com.springboot.blog.search.TitleSuggester;
+import com.springboot.blog.search.TrigramIndex;
 import com.springboot.blog.service.PostService;
-import org.modelmapper.ModelMapper;
+import com.springboot.blog.utils.AppConstants;
+import com.springboot.blog.utils.PostCursor;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,13 +46,27 @@ public class PostServiceImpl implements PostService {
 
     //here we can avoid autowired if there is only one constructor.
     private PostRepository postRepository;
-    private ModelMapper mapper;
+    private CommentRepository commentRepository;
     private CategoryRepository categoryRepository;
+    private PostCache postCache;
+    private PostCountCache postCountCache;
+    private PostIndexer postIndexer;
+    private PostSearchIndex postSearchIndex;
+    private TitleSuggester titleSuggester;
+    private TrigramIndex trigramIndex;
 
-    public PostServiceImpl(PostRepository postRepository, ModelMapper mapper, CategoryRepository categoryRepository) {
+    public PostServiceImpl(PostRepository postRepository, CommentRepository commentRepository, CategoryRepository categoryRepository, PostCache postCache,
+                           PostCountCache postCountCache, PostIndexer postIndexer, PostSearchIndex postSearchIndex, TitleSuggester titleSuggester,
+                           TrigramIndex trigramIndex) {
         this.postRepository = postRepository;
-        this.mapper = mapper;
+        this.commentRepository = commentRepository;
         this.categoryRepository = categoryRepository;
+        this.postCache = postCache;
+        this.postCountCache = postCountCache;
+        this.postIndexer = postIndexer;
+        this.postSearchIndex = postSearchIndex;
+        this.titleSuggester = titleSuggester;
+        this.trigramIndex = trigramIndex;
     }
 
     @Override
@@ -40,6 +77,8 @@ public class PostServiceImpl implements PostService {
         Post post= mapToEntity(postDTO);
         post.setCategory(category);
         Post newPost=postRepository.save(post);
+        postCountCache.increment();
+        postIndexer.onSaved(newPost);
 
         //convert entity to DTO
         PostDTO postResponse = mapToDTO(newPost);
@@ -49,28 +88,139 @@ public class PostServiceImpl implements PostService {
     //pageable and sorting implementation
     @Override
     public PostResponse getAllPosts(int pageNo, int pageSize, String sortBy, String sortDir) {
-        Sort sort= sortDir.equalsIgnoreCase(Sort.Direction.ASC.name())? Sort.by(sortBy).ascending():Sort.by(sortBy).descending();
-        Pageable pageable = PageRequest.of(pageNo,pageSize, sort);
-        Page<Post> posts = postRepository.findAll(pageable);
+        Page<Post> posts = postRepository.findAll(pageable(pageNo, pageSize, sortBy, sortDir));
+        return pageResponse(posts, mapToDTOs(posts.getContent()));
+    }
+
+    //latest comments view: the posts of the page without their comment collections, then the newest comments of all of
+    //them in one windowed query, so a page costs the same however many comments its posts have
+    @Override
+    public PostResponse getAllPostsWithLatestComments(int pageNo, int pageSize, String sortBy, String sortDir, int latestComments) {
+        int limit = latestCommentsLimit(latestComments);
+        Page<Post> posts = postRepository.findAll(pageable(pageNo, pageSize, sortBy, sortDir));
+
+        Map<Long, List<CommentDTO>> latest = new HashMap<>();
+        if(limit > 0 && posts.hasContent()){
+            List<Long> ids = posts.getContent().stream().map(Post::getId).collect(Collectors.toList());
+            for (CommentRepository.LatestComment comment : commentRepository.findLatestByPostIdIn(ids, limit)) {
+                latest.computeIfAbsent(comment.getPostId(), postId -> new ArrayList<>())
+                        .add(new CommentDTO(comment.getId(), comment.getName(), comment.getEmail(), comment.getBody()));
+            }
+        }
+        List<PostDTO> content = posts.getContent().stream()
+                .map(post -> PostMapper.toDTO(post, latest.getOrDefault(post.getId(), List.of())))
+                .collect(Collectors.toList());
+        return pageResponse(posts, content);
+    }
+
+    //slice pagination: no COUNT(*), totals are only reported from the background-refreshed approximate count
+    @Override
+    public PostResponse getAllPostsSlice(int pageNo, int pageSize, String sortBy, String sortDir, boolean withTotal) {
+        Slice<Post> posts = postRepository.findAllBy(pageable(pageNo, pageSize, sortBy, sortDir));
 
-        List<Post> listOfPosts=  posts.getContent();
-        List<PostDTO> content = listOfPosts.stream().map(post -> mapToDTO(post)).collect(Collectors.toList());
+        List<PostDTO> content = mapToDTOs(posts.getContent());
 
         PostResponse postResponse = new PostResponse();
         postResponse.setContent(content);
         postResponse.setPageNo(posts.getNumber());
         postResponse.setPageSize(posts.getSize());
-        postResponse.setTotalElements(posts.getTotalElements());
-        postResponse.setTotalPages(posts.getTotalPages());
-        postResponse.setLast(posts.isLast());
+        postResponse.setLast(!posts.hasNext());
+        Long total = withTotal ? postCountCache.get() : null;
+        if(total != null){
+            postResponse.setTotalElements(total);
+            postResponse.setTotalPages((int) ((total + pageSize - 1) / pageSize));
+            postResponse.setApproximateTotal(true);
+        }
+        return postResponse;
+    }
+
+    //keyset pagination: the cursor carries the last row's sort key and id, so deep pages cost the same as the first one
+    @Override
+    public PostResponse getPostsByCursor(String cursor, int pageSize, String sortBy, String sortDir) {
+        if(pageSize < 1){
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST, "Page size must be at least 1");
+        }
+        int size = Math.min(pageSize, AppConstants.MAX_CURSOR_PAGE_SIZE);
+        if(!PostCursor.isSortable(sortBy)){
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST, "Posts cannot be sorted by " + sortBy);
+        }
+        Sort.Direction direction = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name())? Sort.Direction.ASC:Sort.Direction.DESC;
+        ScrollPosition position = ScrollPosition.keyset();
+        if(cursor != null && !cursor.isEmpty()){
+            PostCursor postCursor = PostCursor.decode(cursor);
+            //a cursor is only valid for the ordering it was issued with
+            Sort.Direction cursorDirection = postCursor.getSortDir().equalsIgnoreCase(Sort.Direction.ASC.name())? Sort.Direction.ASC:Sort.Direction.DESC;
+            if(!postCursor.getSortBy().equals(sortBy) || cursorDirection != direction){
+                throw new BlogAPIException(HttpStatus.BAD_REQUEST, "Cursor was issued for another sort, pass the sortBy and sortDir of the first page");
+            }
+            position = ScrollPosition.forward(postCursor.getKeys());
+        }
+        Sort sort = Sort.by(direction, sortBy);
+        if(!"id".equals(sortBy)){
+            //id breaks ties so the seek key is unique
+            sort = sort.and(Sort.by(direction, "id"));
+        }
+        Window<Post> posts = postRepository.findBy(position, sort, Limit.of(size));
+
+        List<PostDTO> content = mapToDTOs(posts.getContent());
+
+        PostResponse postResponse = new PostResponse();
+        postResponse.setContent(content);
+        postResponse.setPageSize(size);
+        postResponse.setLast(!posts.hasNext());
+        if(posts.hasNext()){
+            KeysetScrollPosition next = (KeysetScrollPosition) posts.positionAt(posts.size() - 1);
+            postResponse.setNext(new PostCursor(sortBy, sortDir, next.getKeys()).encode());
+        }
+        return postResponse;
+    }
+
+    @Override
+    public PostResponse getAllPostSummaries(int pageNo, int pageSize, String sortBy, String sortDir) {
+        Page<PostDTO> posts = postRepository.findAllSummaries(pageable(pageNo, pageSize, sortBy, sortDir));
+        return pageResponse(posts, posts.getContent());
+    }
+
+    private static Pageable pageable(int pageNo, int pageSize, String sortBy, String sortDir){
+        Sort sort= sortDir.equalsIgnoreCase(Sort.Direction.ASC.name())? Sort.by(sortBy).ascending():Sort.by(sortBy).descending();
+        return PageRequest.of(pageNo,pageSize, sort);
+    }
+
+    private static PostResponse pageResponse(Page<?> page, List<PostDTO> content){
+        PostResponse postResponse = new PostResponse();
+        postResponse.setContent(content);
+        postResponse.setPageNo(page.getNumber());
+        postResponse.setPageSize(page.getSize());
+        postResponse.setTotalElements(page.getTotalElements());
+        postResponse.setTotalPages(page.getTotalPages());
+        postResponse.setLast(page.isLast());
 
         return postResponse;
     }
 
     @Override
     public PostDTO getPostById(Long id) {
+        return postCache.get(id, postId -> {
+            Post post = postRepository.findById(postId).orElseThrow(()->new ResourceNotFoundException("post","id", postId));
+            return mapToDTO(post);
+        });
+    }
+
+    //the newest comments come from a limited query and the total from the stored comment count, the post's
+    //comment collection is never loaded. not cached: it is two indexed reads and PostCache holds full posts
+    @Override
+    public PostDTO getPostByIdWithLatestComments(Long id, int latestComments) {
+        int limit = latestCommentsLimit(latestComments);
         Post post = postRepository.findById(id).orElseThrow(()->new ResourceNotFoundException("post","id", id));
-        return mapToDTO(post);
+        List<CommentDTO> comments = limit == 0 ? List.of() : commentRepository.findLatestByPostId(id, Limit.of(limit));
+        return PostMapper.toDTO(post, comments);
+    }
+
+    private static int latestCommentsLimit(int latestComments){
+        if(latestComments < 0){
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST, "Number of latest comments must not be negative");
+        }
+        return Math.min(latestComments, AppConstants.MAX_LATEST_COMMENTS);
     }
 
     @Override
@@ -83,6 +233,8 @@ public class PostServiceImpl implements PostService {
         post.setContent(postDTO.getContent());
         post.setCategory(category);
         Post updatedPost = postRepository.save(post);
+        postCache.evict(id);
+        postIndexer.onSaved(updatedPost);
         return mapToDTO(updatedPost);
     }
 
@@ -90,6 +242,9 @@ public class PostServiceImpl implements PostService {
     public void deletePostById(Long id) {
         Post post = postRepository.findById(id).orElseThrow(()->new ResourceNotFoundException("post","id", id));
         postRepository.delete(post);
+        postCache.evict(id);
+        postCountCache.decrement();
+        postIndexer.onDeleted(id);
     }
 
     @Override
@@ -100,20 +255,132 @@ public class PostServiceImpl implements PostService {
 
     }
 
+    @Override
+    public List<PostDTO> getPostSummariesByCategory(Long categoryId) {
+        categoryRepository.findById(categoryId).orElseThrow(()->new ResourceNotFoundException("Category","id", categoryId));
+        return postRepository.findSummariesByCategoryId(categoryId);
+    }
+
     @Override
     public List<PostDTO> searchPost(String keyword) {
+        List<Long> ids = searchIndex(keyword, 0, Integer.MAX_VALUE, false);
+        if(ids != null){
+            return mapIdsToDTOs(ids);
+        }
         List<Post> searchPost = postRepository.searchPost(keyword);
         return searchPost.stream().map((post) -> mapToDTO(post)).collect(Collectors.toList());
     }
 
+    //only the requested page is loaded from the database
+    @Override
+    public List<PostDTO> searchPost(String keyword, int pageNo, int pageSize) {
+        checkPage(pageNo, pageSize);
+        List<Long> ids = searchIndex(keyword, pageNo, pageSize, true);
+        if(ids != null){
+            return mapIdsToDTOs(ids);
+        }
+        return page(searchPost(keyword), pageNo, pageSize);
+    }
+
+    @Override
+    public List<PostDTO> searchPostSummaries(String keyword) {
+        List<Long> ids = searchIndex(keyword, 0, Integer.MAX_VALUE, false);
+        if(ids != null){
+            return orderByIds(ids, postRepository::findSummariesByIdIn, PostDTO::getId);
+        }
+        return postRepository.searchPostSummaries(keyword);
+    }
+
+    @Override
+    public List<PostDTO> searchPostSummaries(String keyword, int pageNo, int pageSize) {
+        checkPage(pageNo, pageSize);
+        List<Long> ids = searchIndex(keyword, pageNo, pageSize, true);
+        if(ids != null){
+            return orderByIds(ids, postRepository::findSummariesByIdIn, PostDTO::getId);
+        }
+        return page(postRepository.searchPostSummaries(keyword), pageNo, pageSize);
+    }
+
+    //the page of hit ids from the in-memory index answering the keyword, null when it goes to the SQL query. the
+    //indexes keep at most max-results hits: an unpaged search gets the top max-results of them, one more is asked
+    //for so that a requested page cut off by the cap is rejected instead of being returned as if it were complete
+    private List<Long> searchIndex(String keyword, int pageNo, int pageSize, boolean paged){
+        BiFunction<String, Integer, List<Long>> index;
+        int maxResults;
+        if(postSearchIndex.isAvailable()){
+            index = postSearchIndex::search;
+            maxResults = postSearchIndex.getMaxResults();
+        }
+        else if(useTrigramIndex(keyword)){
+            index = trigramIndex::search;
+            maxResults = trigramIndex.getMaxResults();
+        }
+        else {
+            return null;
+        }
+        long end = (long) pageNo * pageSize + pageSize;
+        List<Long> ids = index.apply(keyword, (int) Math.min(end, maxResults + 1L));
+        if(!paged){
+            return ids.size() > maxResults ? new ArrayList<>(ids.subList(0, maxResults)) : ids;
+        }
+        if(end > maxResults && ids.size() > maxResults){
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST, "More than " + maxResults + " posts match, search only returns the first "
+                    + maxResults + ": narrow the keyword or request a page within them");
+        }
+        return page(ids, pageNo, pageSize);
+    }
+
+    private static void checkPage(int pageNo, int pageSize){
+        if(pageNo < 0){
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST, "Page number must not be negative");
+        }
+        if(pageSize <= 0){
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST, "Page size must be positive");
+        }
+    }
+
+    //substring mode: same matches as the LIKE query, keywords the trigram index cannot answer still go to SQL
+    private boolean useTrigramIndex(String keyword){
+        return trigramIndex.isAvailable() && trigramIndex.supports(keyword);
+    }
+
+    //served from the in-memory title trie, never from the database
+    @Override
+    public List<String> suggestTitles(String prefix, int limit) {
+        return titleSuggester.suggest(prefix, Math.min(limit, AppConstants.MAX_SUGGESTIONS));
+    }
+
+    private static <T> List<T> page(List<T> items, int pageNo, int pageSize){
+        int from = (int) Math.min((long) pageNo * pageSize, items.size());
+        int to = (int) Math.min((long) from + pageSize, items.size());
+        return new ArrayList<>(items.subList(from, to));
+    }
+
+    //maps a page of posts with one batched comment query instead of one lazy load per post
+    private List<PostDTO> mapToDTOs(List<Post> posts){
+        return mapIdsToDTOs(posts.stream().map(Post::getId).collect(Collectors.toList()));
+    }
+
+    private List<PostDTO> mapIdsToDTOs(List<Long> ids){
+        List<Post> posts = orderByIds(ids, postRepository::findWithCommentsByIdIn, Post::getId);
+        return posts.stream().map(post -> mapToDTO(post)).collect(Collectors.toList());
+    }
+
+    //loads the rows for the ids in one query and returns them in the order of the ids, ids without a row are skipped
+    private static <T> List<T> orderByIds(List<Long> ids, Function<List<Long>, List<T>> loader, Function<T, Long> idOf){
+        if(ids.isEmpty()){
+            return new ArrayList<>();
+        }
+        Map<Long, T> rows = loader.apply(ids).stream()
+                .collect(Collectors.toMap(idOf, row -> row, (first, second) -> first));
+        return ids.stream().map(rows::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
     private PostDTO mapToDTO(Post post){
-        PostDTO postDTO = mapper.map(post,PostDTO.class);
-        return postDTO;
+        return PostMapper.toDTO(post);
     }
 
     private Post mapToEntity(PostDTO postDTO){
-        Post post= mapper.map(postDTO,Post.class);
-        return post;
-
+        return PostMapper.toEntity(postDTO);
     }
 }
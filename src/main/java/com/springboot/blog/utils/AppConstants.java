@@ -3,8 +3,21 @@ package com.springboot.blog.utils;
 public class AppConstants {
     public static final String DEFAULT_PAGE_NUMBER = "0";
     public static final String DEFAULT_PAGE_SIZE = "10";
+    public static final int MAX_CURSOR_PAGE_SIZE = 100;
     public static final String DEFAULT_SORT_BY = "id";
     public static final String DEFAULT_SORT_DIRECTION = "asc";
+    public static final String DEFAULT_PAGING_MODE = "offset";
+    public static final String CURSOR_PAGING_MODE = "cursor";
+    public static final String SLICE_PAGING_MODE = "slice";
+    public static final String DEFAULT_VIEW = "full";
+    public static final String SUMMARY_VIEW = "summary";
+    public static final String DEFAULT_SUGGESTIONS = "10";
+    public static final int MAX_SUGGESTIONS = 50;
+    public static final String DEFAULT_COMMENT_PAGE_SIZE = "20";
+    public static final int MAX_COMMENT_PAGE_SIZE = 100;
+    public static final String ALL_COMMENTS = "all";
+    public static final String LATEST_COMMENTS = "latest";
+    public static final int MAX_LATEST_COMMENTS = 50;
 
 
 }
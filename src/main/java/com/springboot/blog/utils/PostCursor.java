@@ -0,0 +1,103 @@
+package com.springboot.blog.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.blog.entity.Post;
+import com.springboot.blog.exception.BlogAPIException;
+import org.springframework.http.HttpStatus;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+//opaque keyset cursor for post listings: the sort it was issued for plus the sort key and id of the last row returned.
+//clients must treat it as an opaque string and pass it back unchanged.
+public class PostCursor {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String ID = "id";
+
+    private String sortBy;
+    private String sortDir;
+    private Map<String, Object> keys;
+
+    private PostCursor() {
+    }
+
+    public PostCursor(String sortBy, String sortDir, Map<String, ?> keys) {
+        this.sortBy = sortBy;
+        this.sortDir = sortDir;
+        this.keys = new LinkedHashMap<>(keys);
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public String getSortDir() {
+        return sortDir;
+    }
+
+    public Map<String, Object> getKeys() {
+        return keys;
+    }
+
+    public String encode() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("s", sortBy);
+        json.put("d", sortDir);
+        json.put("k", keys);
+        try {
+            byte[] bytes = OBJECT_MAPPER.writeValueAsBytes(json);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to encode cursor", e);
+        }
+    }
+
+    //a cursor for another sort, or whose keys are not exactly the sort property and id, is rejected as invalid
+    @SuppressWarnings("unchecked")
+    public static PostCursor decode(String cursor) {
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            Map<String, Object> json = OBJECT_MAPPER.readValue(new String(bytes, StandardCharsets.UTF_8), Map.class);
+            PostCursor postCursor = new PostCursor();
+            postCursor.sortBy = (String) json.get("s");
+            postCursor.sortDir = (String) json.get("d");
+            postCursor.keys = new LinkedHashMap<>();
+            Map<String, Object> keys = (Map<String, Object>) json.get("k");
+            if (postCursor.sortBy == null || postCursor.sortDir == null || keys == null || !isSortable(postCursor.sortBy)) {
+                throw new IllegalArgumentException("incomplete cursor");
+            }
+            Set<String> expected = ID.equals(postCursor.sortBy) ? Set.of(ID) : Set.of(postCursor.sortBy, ID);
+            if (!keys.keySet().equals(expected)) {
+                throw new IllegalArgumentException("cursor keys do not match its sort");
+            }
+            // JSON numbers come back as Integer/Long/Double, bind them with the entity's attribute type
+            for (Map.Entry<String, Object> key : keys.entrySet()) {
+                if (key.getValue() == null) {
+                    throw new IllegalArgumentException("null cursor key");
+                }
+                Field field = Post.class.getDeclaredField(key.getKey());
+                postCursor.keys.put(key.getKey(), OBJECT_MAPPER.convertValue(key.getValue(), field.getType()));
+            }
+            return postCursor;
+        } catch (Exception e) {
+            throw new BlogAPIException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    //scalar attributes of a post: the only ones a listing can be sorted, and a cursor seek, by
+    public static boolean isSortable(String property) {
+        try {
+            Field field = Post.class.getDeclaredField(property);
+            Class<?> type = field.getType();
+            return !Modifier.isStatic(field.getModifiers()) && (type.isPrimitive() || Comparable.class.isAssignableFrom(type));
+        } catch (NoSuchFieldException e) {
+            return false;
+        }
+    }
+}
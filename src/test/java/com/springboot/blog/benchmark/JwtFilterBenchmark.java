@@ -0,0 +1,81 @@
+package com.springboot.blog.benchmark;
+
+import com.springboot.blog.cache.JwtClaimsCache;
+import com.springboot.blog.cache.TokenDenylist;
+import com.springboot.blog.repository.RevokedTokenRepository;
+import com.springboot.blog.security.JwtTokenProvider;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+//token handling cost of one authenticated request in JwtAuthenticationFilter:
+//the previous validateToken + getUsername pair (key derivation and parser setup per call, two signature checks),
+//a single parse with the key and parser built once, and the claims cache hit served on repeat requests.
+//run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.springboot.blog.benchmark.JwtFilterBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+    private static final String SECRET = "daf66e01593f61a15b857cf433aae03a005812b31234e149036bcc8dee755dbb";
+
+    private String token;
+    private JwtParser parser;
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtTokenProvider = new JwtTokenProvider(SECRET, 3_600_000, 3_600_000, new JwtClaimsCache(10_000, new SimpleMeterRegistry()),
+                new TokenDenylist(mock(RevokedTokenRepository.class), new SimpleMeterRegistry()));
+        token = jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken("john", null));
+        parser = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET))).build();
+    }
+
+    @Benchmark
+    public String validateThenGetUsername() {
+        Jwts.parser().verifyWith(legacyKey()).build().parse(token);
+        return Jwts.parser().verifyWith(legacyKey()).build().parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String singleParse() {
+        return parser.parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String cachedClaims() {
+        return jwtTokenProvider.getClaims(token).getSubject();
+    }
+
+    private static SecretKey legacyKey() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,83 @@
+package com.springboot.blog.benchmark;
+
+import com.springboot.blog.entity.Category;
+import com.springboot.blog.entity.Comment;
+import com.springboot.blog.entity.Post;
+import com.springboot.blog.mapper.PostMapper;
+import com.springboot.blog.payload.PostDTO;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//mapping one page of 50 posts, with their comments, to PostDTOs: the previous ModelMapper bean against PostMapper.
+//run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.springboot.blog.benchmark.MapperBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"0", "5"})
+    public int commentsPerPost;
+
+    private ModelMapper modelMapper;
+    private List<Post> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        Category category = new Category(1L, "Java", "Java posts", null);
+        page = new ArrayList<>();
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            Post post = new Post(id, "Title " + id, "Description of post " + id, "Content of post " + id,
+                    new ArrayList<>(), category, 0, null);
+            for (int i = 0; i < commentsPerPost; i++) {
+                post.getComments().add(new Comment(id * 100 + i, "Reader " + i, "reader" + i + "@example.com",
+                        "Comment number " + i, post));
+            }
+            page.add(post);
+        }
+    }
+
+    @Benchmark
+    public List<PostDTO> modelMapper() {
+        List<PostDTO> dtos = new ArrayList<>(page.size());
+        for (Post post : page) {
+            dtos.add(modelMapper.map(post, PostDTO.class));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<PostDTO> postMapper() {
+        List<PostDTO> dtos = new ArrayList<>(page.size());
+        for (Post post : page) {
+            dtos.add(PostMapper.toDTO(post));
+        }
+        return dtos;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MapperBenchmark.class.getSimpleName()).build()).run();
+    }
+}
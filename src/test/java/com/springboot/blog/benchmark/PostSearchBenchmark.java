@@ -0,0 +1,140 @@
+package com.springboot.blog.benchmark;
+
+import com.springboot.blog.entity.Post;
+import com.springboot.blog.search.TrigramIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+//substring search over synthetic posts: the LIKE '%keyword%' query behind PostRepository.searchPost
+//(run on in-memory H2 instead of MySQL) against the trigram index.
+//run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.springboot.blog.benchmark.PostSearchBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class PostSearchBenchmark {
+    private static final String LIKE_QUERY = "SELECT id FROM posts WHERE " +
+            "title LIKE CONCAT('%', ?, '%') OR description LIKE CONCAT('%', ?, '%') OR content LIKE CONCAT('%', ?, '%')";
+
+    @Param("1000000")
+    public int posts;
+
+    //a word fragment matching many posts, and a phrase matching a handful
+    @Param({"ing bo", "quartz vortex"})
+    public String keyword;
+
+    private Connection connection;
+    private PreparedStatement likeQuery;
+    private TrigramIndex trigramIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:posts;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS posts");
+            statement.execute("CREATE TABLE posts (id BIGINT PRIMARY KEY, title VARCHAR(255), " +
+                    "description VARCHAR(255), content VARCHAR(4000))");
+        }
+        trigramIndex = new TrigramIndex(TrigramIndex.SUBSTRING_MODE, Integer.MAX_VALUE, new SimpleMeterRegistry());
+        List<String> words = vocabulary(new Random(7), 5000);
+        Random random = new Random(42);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO posts VALUES (?, ?, ?, ?)")) {
+            for (long id = 1; id <= posts; id++) {
+                Post post = new Post(id, sentence(random, words, 6), sentence(random, words, 12),
+                        sentence(random, words, 60), null, null, 0, null);
+                trigramIndex.index(post);
+                insert.setLong(1, id);
+                insert.setString(2, post.getTitle());
+                insert.setString(3, post.getDescription());
+                insert.setString(4, post.getContent());
+                insert.addBatch();
+                if (id % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        trigramIndex.markReady();
+        likeQuery = connection.prepareStatement(LIKE_QUERY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Long> likeQuery() throws SQLException {
+        likeQuery.setString(1, keyword);
+        likeQuery.setString(2, keyword);
+        likeQuery.setString(3, keyword);
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet rows = likeQuery.executeQuery()) {
+            while (rows.next()) {
+                ids.add(rows.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    @Benchmark
+    public List<Long> trigramIndex() {
+        return trigramIndex.search(keyword, Integer.MAX_VALUE);
+    }
+
+    //random lowercase words plus the two used by the rare keyword
+    private static List<String> vocabulary(Random random, int size) {
+        List<String> words = new ArrayList<>(List.of("quartz", "vortex", "spring", "boot"));
+        while (words.size() < size) {
+            StringBuilder word = new StringBuilder();
+            for (int length = 3 + random.nextInt(8); length > 0; length--) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    private static String sentence(Random random, List<String> words, int length) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(words.get(random.nextInt(words.size())));
+        }
+        return sentence.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PostSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,157 @@
+package com.springboot.blog.benchmark;
+
+import com.springboot.blog.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//concurrent signups at the statement level (in-memory H2 instead of MySQL, password hashing left out as it is the
+//same on both paths): the previous existsByUsername + existsByEmail + findByName + inserts against the inserts alone.
+//run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.springboot.blog.benchmark.RegisterBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class RegisterBenchmark {
+    private static final String URL = "jdbc:h2:mem:register;DB_CLOSE_DELAY=-1";
+
+    @State(Scope.Benchmark)
+    public static class Database {
+        private final AtomicLong sequence = new AtomicLong();
+        private Connection schema;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            schema = DriverManager.getConnection(URL, "sa", "");
+            try (Statement statement = schema.createStatement()) {
+                statement.execute("DROP ALL OBJECTS");
+                statement.execute("CREATE TABLE roles (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(60))");
+                statement.execute("CREATE TABLE users (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255), " +
+                        "username VARCHAR(255) NOT NULL, email VARCHAR(255) NOT NULL, password VARCHAR(255) NOT NULL, " +
+                        "CONSTRAINT " + User.USERNAME_CONSTRAINT + " UNIQUE (username), CONSTRAINT " + User.EMAIL_CONSTRAINT + " UNIQUE (email))");
+                statement.execute("CREATE TABLE users_roles (user_id BIGINT NOT NULL, role_id BIGINT NOT NULL, " +
+                        "PRIMARY KEY (user_id, role_id))");
+                statement.execute("INSERT INTO roles (name) VALUES ('ROLE_ADMIN'), ('ROLE_USER')");
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            schema.close();
+        }
+
+        String nextUsername() {
+            return "user" + sequence.incrementAndGet();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+        private Connection connection;
+        private PreparedStatement existsByUsername;
+        private PreparedStatement existsByEmail;
+        private PreparedStatement findRoleByName;
+        private PreparedStatement insertUser;
+        private PreparedStatement insertUserRole;
+        private long userRoleId;
+
+        //takes the database so the schema exists before the statements are prepared
+        @Setup(Level.Trial)
+        public void setUp(Database database) throws SQLException {
+            connection = DriverManager.getConnection(URL, "sa", "");
+            existsByUsername = connection.prepareStatement("SELECT COUNT(*) FROM users WHERE username = ?");
+            existsByEmail = connection.prepareStatement("SELECT COUNT(*) FROM users WHERE email = ?");
+            findRoleByName = connection.prepareStatement("SELECT id, name FROM roles WHERE name = ?");
+            insertUser = connection.prepareStatement("INSERT INTO users (name, username, email, password) VALUES (?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS);
+            insertUserRole = connection.prepareStatement("INSERT INTO users_roles (user_id, role_id) VALUES (?, ?)");
+            //what RoleCache holds after startup
+            findRoleByName.setString(1, "ROLE_USER");
+            try (ResultSet rows = findRoleByName.executeQuery()) {
+                rows.next();
+                userRoleId = rows.getLong(1);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+
+        private static boolean exists(PreparedStatement query, String value) throws SQLException {
+            query.setString(1, value);
+            try (ResultSet rows = query.executeQuery()) {
+                return rows.next() && rows.getLong(1) > 0;
+            }
+        }
+
+        private boolean insert(String username, long roleId) throws SQLException {
+            insertUser.setString(1, username);
+            insertUser.setString(2, username);
+            insertUser.setString(3, username + "@example.com");
+            insertUser.setString(4, "hash");
+            try {
+                insertUser.executeUpdate();
+            } catch (SQLIntegrityConstraintViolationException e) {
+                return false;
+            }
+            try (ResultSet keys = insertUser.getGeneratedKeys()) {
+                keys.next();
+                insertUserRole.setLong(1, keys.getLong(1));
+            }
+            insertUserRole.setLong(2, roleId);
+            insertUserRole.executeUpdate();
+            return true;
+        }
+    }
+
+    @Benchmark
+    public boolean checkThenInsert(Database database, Session session) throws SQLException {
+        String username = database.nextUsername();
+        if (Session.exists(session.existsByUsername, username)
+                || Session.exists(session.existsByEmail, username + "@example.com")) {
+            return false;
+        }
+        session.findRoleByName.setString(1, "ROLE_USER");
+        long roleId;
+        try (ResultSet rows = session.findRoleByName.executeQuery()) {
+            rows.next();
+            roleId = rows.getLong(1);
+        }
+        return session.insert(username, roleId);
+    }
+
+    @Benchmark
+    public boolean insertOnly(Database database, Session session) throws SQLException {
+        return session.insert(database.nextUsername(), session.userRoleId);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RegisterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
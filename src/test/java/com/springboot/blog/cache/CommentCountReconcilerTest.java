@@ -0,0 +1,72 @@
+package com.springboot.blog.cache;
+
+import com.springboot.blog.repository.PostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class CommentCountReconcilerTest {
+    private PostRepository postRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private CommentCountReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        reconciler = new CommentCountReconciler(postRepository, meterRegistry);
+    }
+
+    @Test
+    void reconcile_ShouldRecountIdRangesUpToTheLastPost() {
+        when(postRepository.findMaxId()).thenReturn(2500L);
+        when(postRepository.reconcileCommentCounts(1000L, 2000L)).thenReturn(3);
+
+        reconciler.reconcile();
+
+        InOrder inOrder = inOrder(postRepository);
+        inOrder.verify(postRepository).reconcileCommentCounts(0L, 1000L);
+        inOrder.verify(postRepository).reconcileCommentCounts(1000L, 2000L);
+        inOrder.verify(postRepository).reconcileCommentCounts(2000L, 2500L);
+        verify(postRepository, times(3)).reconcileCommentCounts(anyLong(), anyLong());
+        assertEquals(3, meterRegistry.get("posts.comment.count.corrected").counter().count());
+    }
+
+    @Test
+    void backfillUncounted_ShouldRecountEveryPost_whenAPostWithCommentsIsUncounted() {
+        when(postRepository.findUncountedIds(any(Limit.class))).thenReturn(List.of(3L));
+        when(postRepository.findMaxId()).thenReturn(10L);
+
+        reconciler.backfillUncounted();
+
+        verify(postRepository).reconcileCommentCounts(0L, 10L);
+    }
+
+    @Test
+    void backfillUncounted_ShouldLeaveACountedTableToThePeriodicReconcile() {
+        when(postRepository.findUncountedIds(any(Limit.class))).thenReturn(List.of());
+
+        reconciler.backfillUncounted();
+
+        verify(postRepository, never()).findMaxId();
+        verify(postRepository, never()).reconcileCommentCounts(anyLong(), anyLong());
+    }
+
+    @Test
+    void reconcile_ShouldDoNothing_whenThereAreNoPosts() {
+        when(postRepository.findMaxId()).thenReturn(null);
+
+        reconciler.reconcile();
+
+        verify(postRepository, never()).reconcileCommentCounts(anyLong(), anyLong());
+    }
+}
@@ -0,0 +1,67 @@
+package com.springboot.blog.cache;
+
+import com.springboot.blog.payload.PostDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PostCacheTest {
+    private SimpleMeterRegistry meterRegistry;
+    private PostCache postCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        postCache = new PostCache(2, 60, meterRegistry);
+    }
+
+    private PostDTO post(Long id) {
+        PostDTO postDTO = new PostDTO();
+        postDTO.setId(id);
+        postDTO.setTitle("Post " + id);
+        return postDTO;
+    }
+
+    @Test
+    void get_ShouldLoadOnceAndThenHit() {
+        AtomicInteger loads = new AtomicInteger();
+
+        postCache.get(1L, id -> { loads.incrementAndGet(); return post(id); });
+        PostDTO cached = postCache.get(1L, id -> { loads.incrementAndGet(); return post(id); });
+
+        assertEquals("Post 1", cached.getTitle());
+        assertEquals(1, loads.get());
+        assertEquals(1, postCache.stats().hitCount());
+        assertEquals(1, postCache.stats().missCount());
+    }
+
+    @Test
+    void evict_ShouldForceReload() {
+        AtomicInteger loads = new AtomicInteger();
+
+        postCache.get(1L, id -> { loads.incrementAndGet(); return post(id); });
+        postCache.evict(1L);
+        postCache.get(1L, id -> { loads.incrementAndGet(); return post(id); });
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_ShouldNotCacheFailedLoads() {
+        assertThrows(RuntimeException.class, () -> postCache.get(1L, id -> { throw new RuntimeException("not found"); }));
+
+        assertEquals(0, postCache.size());
+    }
+
+    @Test
+    void metrics_ShouldBeRegistered() {
+        postCache.get(1L, this::post);
+
+        assertNotNull(meterRegistry.find("cache.gets").tag("cache", PostCache.CACHE_NAME).tag("result", "miss").functionCounter());
+        assertNotNull(meterRegistry.find("cache.evictions").tag("cache", PostCache.CACHE_NAME).functionCounter());
+    }
+}
@@ -0,0 +1,96 @@
+package com.springboot.blog.cache;
+
+import com.springboot.blog.exception.BlogAPIException;
+import com.springboot.blog.repository.RevokedTokenRepository;
+import com.springboot.blog.security.JwtTokenProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//two instances sharing one revoked_tokens table (H2), each with its own in-memory denylist
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TokenDenylistTest {
+    private static final String SECRET = "daf66e01593f61a15b857cf433aae03a005812b31234e149036bcc8dee755dbb";
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenDenylist denylistA;
+    private TokenDenylist denylistB;
+
+    @BeforeEach
+    void setUp() {
+        denylistA = new TokenDenylist(revokedTokenRepository, new SimpleMeterRegistry());
+        denylistB = new TokenDenylist(revokedTokenRepository, new SimpleMeterRegistry());
+        denylistA.load();
+        denylistB.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        revokedTokenRepository.deleteAll();
+    }
+
+    private JwtTokenProvider provider(TokenDenylist tokenDenylist) {
+        return new JwtTokenProvider(SECRET, 60_000, 600_000, new JwtClaimsCache(100, new SimpleMeterRegistry()), tokenDenylist);
+    }
+
+    @Test
+    void poll_ShouldPickUpRevocationsOfAnotherInstance() {
+        denylistA.revoke("revoked-on-a", Instant.now().plusSeconds(600));
+
+        assertTrue(denylistA.isRevoked("revoked-on-a"));
+        assertFalse(denylistB.isRevoked("revoked-on-a"));
+
+        denylistB.poll();
+
+        assertTrue(denylistB.isRevoked("revoked-on-a"));
+        assertEquals(1, denylistB.size());
+    }
+
+    @Test
+    void isRevokedInStore_ShouldSeeRevocationOfAnotherInstance_beforeThePoll() {
+        denylistA.revoke("revoked-on-a", Instant.now().plusSeconds(600));
+
+        assertTrue(denylistB.isRevokedInStore("revoked-on-a"));
+        assertTrue(denylistB.isRevoked("revoked-on-a"));
+        assertFalse(denylistB.isRevokedInStore("never-revoked"));
+    }
+
+    @Test
+    void getRefreshClaims_ShouldRejectRefreshTokenLoggedOutOnAnotherInstance() {
+        JwtTokenProvider instanceA = provider(denylistA);
+        JwtTokenProvider instanceB = provider(denylistB);
+        String refreshToken = instanceA.generateRefreshToken(new UsernamePasswordAuthenticationToken("john", null));
+        assertEquals("john", instanceB.getRefreshClaims(refreshToken).getSubject());
+
+        instanceA.revoke(refreshToken);
+
+        BlogAPIException exception = assertThrows(BlogAPIException.class, () -> instanceB.getRefreshClaims(refreshToken));
+        assertEquals("Revoked JWT token", exception.getMessage());
+    }
+
+    @Test
+    void getAccessClaims_ShouldRejectAccessTokenRevokedOnAnotherInstance_afterThePoll() {
+        JwtTokenProvider instanceA = provider(denylistA);
+        JwtTokenProvider instanceB = provider(denylistB);
+        String accessToken = instanceA.generateToken(new UsernamePasswordAuthenticationToken("john", null));
+        instanceB.getAccessClaims(accessToken);
+
+        instanceA.revoke(accessToken);
+        denylistB.poll();
+
+        assertThrows(BlogAPIException.class, () -> instanceB.getAccessClaims(accessToken));
+    }
+}
@@ -0,0 +1,114 @@
+package com.springboot.blog.cache;
+
+import com.springboot.blog.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserAvailabilityFilterTest {
+    private SimpleMeterRegistry meterRegistry;
+    private UserRepository userRepository;
+    private UserAvailabilityFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userRepository = mock(UserRepository.class);
+        filter = new UserAvailabilityFilter(userRepository, 1000, 0.01, meterRegistry);
+    }
+
+    private static UserRepository.UserIdentity identity(long id, String username) {
+        return new UserRepository.UserIdentity() {
+            public Long getId() { return id; }
+            public String getUsername() { return username; }
+            public String getEmail() { return username + "@example.com"; }
+        };
+    }
+
+    @Test
+    void bloomFilter_ShouldNeverMissAValueItWasGiven() {
+        BloomFilter bloomFilter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            bloomFilter.put("user" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(bloomFilter.mightContain("user" + i));
+        }
+    }
+
+    @Test
+    void bloomFilter_ShouldKeepFalsePositivesNearTheConfiguredRate() {
+        BloomFilter bloomFilter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            bloomFilter.put("user" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (bloomFilter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        assertEquals(0.01, bloomFilter.expectedFalsePositiveRate(), 0.005);
+        // ~9.6 bits per value at 1%
+        assertTrue(bloomFilter.memoryBytes() < 13_000);
+    }
+
+    @Test
+    void mightContain_ShouldBeTrue_untilSeeded() {
+        assertTrue(filter.mightContainUsername("anyone"));
+    }
+
+    @Test
+    void load_ShouldSeedFromTheUsersTable() {
+        when(userRepository.findIdentitiesAfter(eq(0L), any(Limit.class))).thenReturn(List.of(identity(1, "John")));
+
+        filter.load();
+
+        // the table compares case-insensitively, so any casing is a probable hit
+        assertTrue(filter.mightContainUsername("john"));
+        assertTrue(filter.mightContainEmail("JOHN@example.com"));
+        assertFalse(filter.mightContainUsername("jane"));
+        assertEquals(1, meterRegistry.get("user.availability.checks").tag("result", "filtered").counter().count());
+        assertEquals(1, meterRegistry.get("user.availability.filter.insertions").tag("field", "username").gauge().value());
+    }
+
+    @Test
+    void add_ShouldMakeNewUsersProbableHits() {
+        when(userRepository.findIdentitiesAfter(eq(0L), any(Limit.class))).thenReturn(List.of());
+        filter.load();
+
+        filter.add("jane", "jane@example.com");
+
+        assertTrue(filter.mightContainUsername("jane"));
+        assertTrue(filter.mightContainEmail("jane@example.com"));
+    }
+
+    @Test
+    void refresh_ShouldAddUsersRegisteredThroughAnotherInstance() {
+        when(userRepository.findIdentitiesAfter(eq(0L), any(Limit.class))).thenReturn(List.of(identity(1, "john")));
+        filter.load();
+        assertFalse(filter.mightContainUsername("jane"));
+
+        //registered elsewhere after the seed, only the rows above the last seen id are read
+        when(userRepository.findIdentitiesAfter(eq(1L), any(Limit.class))).thenReturn(List.of(identity(2, "jane")));
+        filter.refresh();
+
+        assertTrue(filter.mightContainUsername("jane"));
+        assertTrue(filter.mightContainEmail("jane@example.com"));
+        verify(userRepository).findIdentitiesAfter(eq(1L), any(Limit.class));
+    }
+}
@@ -0,0 +1,157 @@
+package com.springboot.blog.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserDetailsCacheTest {
+    private SimpleMeterRegistry meterRegistry;
+    private UserDetailsCache userDetailsCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userDetailsCache = new UserDetailsCache(100, 60, meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    private UserDetailsCache.CachedUser load(String usernameOrEmail) {
+        loads.incrementAndGet();
+        return new UserDetailsCache.CachedUser("john", "john@blog.com", "hash", List.of("ROLE_USER"));
+    }
+
+    @Test
+    void get_ShouldShareEntryBetweenUsernameAndEmail() {
+        UserDetails byUsername = userDetailsCache.get("john", this::load);
+        UserDetails byEmail = userDetailsCache.get("john@blog.com", this::load);
+
+        assertEquals("john@blog.com", byUsername.getUsername());
+        assertEquals("john@blog.com", byEmail.getUsername());
+        assertEquals(1, loads.get());
+        assertEquals(1, userDetailsCache.stats().hitCount());
+    }
+
+    @Test
+    void get_ShouldReturnFreshInstanceSoErasedCredentialsDoNotLeak() {
+        User first = (User) userDetailsCache.get("john", this::load);
+        first.eraseCredentials();
+
+        assertEquals("hash", userDetailsCache.get("john", this::load).getPassword());
+    }
+
+    @Test
+    void get_ShouldLoadOnce_whenManyRequestsMissTogether() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<UserDetails>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return userDetailsCache.get("john", key -> {
+                        sleep();
+                        return load(key);
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<UserDetails> result : results) {
+                assertEquals("john@blog.com", result.get(5, TimeUnit.SECONDS).getUsername());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void invalidate_ShouldDropBothKeys() {
+        userDetailsCache.get("john", this::load);
+
+        userDetailsCache.invalidate("john", "john@blog.com");
+        userDetailsCache.get("john@blog.com", this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldDropAliasesOfALoadInFlight() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<UserDetails> stale = executor.submit(() -> userDetailsCache.get("john", key -> {
+                loading.countDown();
+                sleep();
+                return load(key);
+            }));
+            loading.await(5, TimeUnit.SECONDS);
+            //the password changes while the old user is being loaded
+            executor.submit(() -> userDetailsCache.invalidate("john", "john@blog.com")).get(5, TimeUnit.SECONDS);
+            stale.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        userDetailsCache.get("john@blog.com", this::load);
+        userDetailsCache.get("john", this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldDropEntriesCachedUnderAnotherCase() {
+        userDetailsCache.get("John", this::load);
+        userDetailsCache.get("JOHN@Blog.com", this::load);
+        assertEquals(1, loads.get());
+
+        userDetailsCache.invalidate("john", "john@blog.com");
+        userDetailsCache.get("JOHN@Blog.com", this::load);
+        userDetailsCache.get("John", this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_ShouldNotCacheMissingUsers() {
+        for (int i = 0; i < 2; i++) {
+            assertThrows(UsernameNotFoundException.class, () -> userDetailsCache.get("ghost", key -> {
+                loads.incrementAndGet();
+                throw new UsernameNotFoundException("User not found with username or email: " + key);
+            }));
+        }
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void constructor_ShouldRegisterHitAndLoadMetrics() {
+        userDetailsCache.get("john", this::load);
+
+        assertNotNull(meterRegistry.find("cache.gets").tag("cache", UserDetailsCache.CACHE_NAME).tag("result", "hit").functionCounter());
+        assertEquals(1, meterRegistry.get("user.details.load").timer().count());
+    }
+}
@@ -0,0 +1,127 @@
+package com.springboot.blog.config;
+
+import com.springboot.blog.entity.Category;
+import com.springboot.blog.entity.Role;
+import com.springboot.blog.repository.CategoryRepository;
+import com.springboot.blog.repository.RoleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//second-level and query cache against a real (H2) database. every repository call runs in its own transaction,
+//as it does in the services, so entries are only cached once their transaction commits.
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({HibernateCacheConfig.class, HibernateCacheConfigTest.MetricsConfig.class})
+public class HibernateCacheConfigTest {
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Category category;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category(null, "Tech", "Technology", null));
+        Role role = new Role();
+        role.setName("ROLE_USER");
+        roleRepository.save(role);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        categoryRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void findById_ShouldServeCategoryFromSecondLevelCache() {
+        categoryRepository.findById(category.getId()).orElseThrow();
+        long statements = statistics.getPrepareStatementCount();
+
+        Category cached = categoryRepository.findById(category.getId()).orElseThrow();
+
+        assertEquals("Tech", cached.getName());
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", "hibernate." + Category.CACHE_REGION)
+                .tag("result", "hit").functionCounter().count() > 0);
+    }
+
+    @Test
+    void findById_ShouldSeeUpdate_afterCategoryIsSaved() {
+        Category loaded = categoryRepository.findById(category.getId()).orElseThrow();
+        loaded.setName("Technology");
+        categoryRepository.save(loaded);
+
+        assertEquals("Technology", categoryRepository.findById(category.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void findAll_ShouldNotQuery_whenResultIsCached() {
+        categoryRepository.findAll();
+        statistics.clear();
+
+        List<Category> categories = categoryRepository.findAll();
+
+        assertEquals(1, categories.size());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void findAll_ShouldQueryAgain_afterCategoryIsAdded() {
+        categoryRepository.findAll();
+        categoryRepository.save(new Category(null, "Travel", "Travel", null));
+
+        assertEquals(2, categoryRepository.findAll().size());
+    }
+
+    @Test
+    void findByName_ShouldNotQuery_whenRoleIsCached() {
+        Long id = roleRepository.findByName("ROLE_USER").orElseThrow().getId();
+        statistics.clear();
+
+        Role role = roleRepository.findByName("ROLE_USER").orElseThrow();
+
+        assertEquals(id, role.getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+}
@@ -1,7 +1,12 @@
 package com.springboot.blog.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.blog.exception.BlogAPIException;
+import com.springboot.blog.exception.GlobalExceptionHandler;
+import com.springboot.blog.payload.AvailabilityDTO;
+import com.springboot.blog.payload.JwtAuthResponse;
 import com.springboot.blog.payload.LoginDTO;
+import com.springboot.blog.payload.RefreshTokenDTO;
 import com.springboot.blog.payload.RegisterDTO;
 import com.springboot.blog.service.AuthService;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,11 +14,17 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -32,7 +43,9 @@ public class AuthControllerTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.initMocks(this);
-        mockMvc = MockMvcBuilders.standaloneSetup(authController).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(authController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
 
         loginDTO = new LoginDTO();
         loginDTO.setUsernameOrEmail("testuser@example.com");
@@ -48,18 +61,22 @@ public class AuthControllerTest {
     @Test
     void testLogin_ShouldReturnToken_WhenValidCredentials() throws Exception {
         String mockToken = "mock-jwt-token";
-        when(authService.login(any(LoginDTO.class))).thenReturn(mockToken);
+        JwtAuthResponse jwtAuthResponse = new JwtAuthResponse();
+        jwtAuthResponse.setAccessToken(mockToken);
+        jwtAuthResponse.setRefreshToken("mock-refresh-token");
+        when(authService.login(any(LoginDTO.class))).thenReturn(jwtAuthResponse);
 
         mockMvc.perform(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(new ObjectMapper().writeValueAsString(loginDTO)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.accessToken").value(mockToken));
+                .andExpect(jsonPath("$.accessToken").value(mockToken))
+                .andExpect(jsonPath("$.refreshToken").value("mock-refresh-token"));
     }
 
     @Test
     void testLogin_ShouldReturnUnauthorized_WhenInvalidCredentials() throws Exception {
-        when(authService.login(any(LoginDTO.class))).thenThrow(new RuntimeException("Invalid credentials"));
+        when(authService.login(any(LoginDTO.class))).thenThrow(new BadCredentialsException("Invalid credentials"));
 
         mockMvc.perform(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -67,6 +84,18 @@ public class AuthControllerTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    void testLogin_ShouldReturnServiceUnavailable_WhenPasswordEncoderOverloaded() throws Exception {
+        when(authService.login(any(LoginDTO.class)))
+                .thenThrow(new BlogAPIException(HttpStatus.SERVICE_UNAVAILABLE, "Too many authentication requests, try again later"));
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(loginDTO)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("Too many authentication requests, try again later"));
+    }
+
     @Test
     void testLogin_ShouldReturnBadRequest_WhenMissingFields() throws Exception {
         LoginDTO invalidLoginDTO = new LoginDTO();
@@ -93,7 +122,7 @@ public class AuthControllerTest {
     @Test
     void testRegister_ShouldReturnBadRequest_WhenUsernameExists() throws Exception {
         when(authService.register(any(RegisterDTO.class)))
-                .thenThrow(new RuntimeException("Username already exists"));
+                .thenThrow(new BlogAPIException(HttpStatus.BAD_REQUEST, "Username already exists"));
 
         mockMvc.perform(post("/api/auth/register")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -105,7 +134,7 @@ public class AuthControllerTest {
     @Test
     void testRegister_ShouldReturnBadRequest_WhenEmailExists() throws Exception {
         when(authService.register(any(RegisterDTO.class)))
-                .thenThrow(new RuntimeException("Email already exists"));
+                .thenThrow(new BlogAPIException(HttpStatus.BAD_REQUEST, "Email already exists"));
 
         mockMvc.perform(post("/api/auth/register")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -114,6 +143,31 @@ public class AuthControllerTest {
                 .andExpect(content().string("Email already exists"));
     }
 
+    @Test
+    void testRegister_ShouldReturnServiceUnavailable_WhenPasswordEncoderOverloaded() throws Exception {
+        when(authService.register(any(RegisterDTO.class)))
+                .thenThrow(new BlogAPIException(HttpStatus.SERVICE_UNAVAILABLE, "Too many authentication requests, try again later"));
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(registerDTO)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("Too many authentication requests, try again later"));
+    }
+
+    @Test
+    void testRegister_ShouldReturnServerErrorWithoutSql_WhenViolationIsNotADuplicateUser() throws Exception {
+        when(authService.register(any(RegisterDTO.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement [insert into users_roles (user_id,role_id) values (?,?)]; constraint [fk_users_roles_role_id]"));
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(registerDTO)))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.message").value("Data integrity violation"))
+                .andExpect(content().string(not(containsString("users_roles"))));
+    }
+
     @Test
     void testRegister_ShouldReturnBadRequest_WhenMissingFields() throws Exception {
         RegisterDTO invalidRegisterDTO = new RegisterDTO();
@@ -125,4 +179,23 @@ public class AuthControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void testCheckAvailability_ShouldReturnAvailability() throws Exception {
+        when(authService.checkAvailability("testuser", null)).thenReturn(new AvailabilityDTO(false, null));
+
+        mockMvc.perform(get("/api/auth/availability").param("username", "testuser"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usernameAvailable").value(false));
+    }
+
+    @Test
+    void testLogout_ShouldRevokeTokens() throws Exception {
+        mockMvc.perform(post("/api/auth/logout")
+                        .header("Authorization", "Bearer access-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(new RefreshTokenDTO("refresh-token"))))
+                .andExpect(status().isOk());
+
+        verify(authService).logout("refresh-token", "access-token");
+    }
 }
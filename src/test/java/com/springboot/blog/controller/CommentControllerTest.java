@@ -2,7 +2,9 @@ package com.springboot.blog.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.springboot.blog.payload.CommentDTO;
+import com.springboot.blog.payload.CommentResponse;
 import com.springboot.blog.service.CommentService;
+import com.springboot.blog.utils.AppConstants;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -12,7 +14,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
-import java.util.Arrays;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
@@ -55,14 +57,30 @@ public class CommentControllerTest {
                 .andExpect(jsonPath("$.email").value("john@example.com"));;
     }
     @Test
-    void testGetCommentsByPostId_ShouldReturnListOfComments() throws Exception {
-        when(commentService.getCommentsByPostId(1L)).thenReturn(Arrays.asList(commentDTO));
+    void testGetCommentsByPostId_ShouldReturnPageOfComments() throws Exception {
+        when(commentService.getCommentsByPostId(1L, 5L, 1)).thenReturn(new CommentResponse(List.of(commentDTO), 1, false, 1L));
 
         mockMvc.perform(get("/api/posts/1/comments")
+                        .param("cursor", "5")
+                        .param("pageSize", "1")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.size()").value(1))
-                .andExpect(jsonPath("$[0].name").value("John Doe"));
+                .andExpect(jsonPath("$.content.size()").value(1))
+                .andExpect(jsonPath("$.content[0].name").value("John Doe"))
+                .andExpect(jsonPath("$.last").value(false))
+                .andExpect(jsonPath("$.next").value(1));
+    }
+
+    @Test
+    void testGetCommentsByPostId_ShouldUseDefaultPageSize() throws Exception {
+        when(commentService.getCommentsByPostId(1L, null, Integer.parseInt(AppConstants.DEFAULT_COMMENT_PAGE_SIZE)))
+                .thenReturn(new CommentResponse(List.of(commentDTO), 20, true, null));
+
+        mockMvc.perform(get("/api/posts/1/comments")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.last").value(true))
+                .andExpect(jsonPath("$.next").doesNotExist());
     }
 
     @Test
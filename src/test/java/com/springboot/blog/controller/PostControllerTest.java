@@ -1,5 +1,6 @@
 package com.springboot.blog.controller;
 
+import com.springboot.blog.exception.BlogAPIException;
 import com.springboot.blog.payload.PostDTO;
 import com.springboot.blog.payload.PostResponse;
 import com.springboot.blog.service.PostService;
@@ -15,6 +16,7 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -54,23 +56,74 @@ public class PostControllerTest {
         postResponse.setContent(Collections.singletonList(postDTO));
         when(postService.getAllPosts(0,10,"title", "asc")).thenReturn(postResponse);
 
-        PostResponse response = postController.getAllPosts(0,10,"title","asc");
+        PostResponse response = postController.getAllPosts(0,10,"title","asc","offset",null,false,"full","all",3);
 
         assertEquals(postResponse, response);
         verify(postService).getAllPosts(0,10,"title", "asc");
     }
 
+    @Test
+    void getAllPosts_ShouldUseCursor_WhenCursorPagingRequested(){
+        PostResponse postResponse = new PostResponse();
+        postResponse.setContent(Collections.singletonList(postDTO));
+        postResponse.setNext("next-cursor");
+        when(postService.getPostsByCursor("cursor",10,"title", "asc")).thenReturn(postResponse);
+
+        PostResponse response = postController.getAllPosts(0,10,"title","asc","cursor","cursor",false,"full","all",3);
+
+        assertEquals("next-cursor", response.getNext());
+        verify(postService).getPostsByCursor("cursor",10,"title", "asc");
+        verify(postService, never()).getAllPosts(anyInt(),anyInt(),anyString(),anyString());
+    }
+
+    @Test
+    void getAllPosts_ShouldUseSlice_WhenSlicePagingRequested(){
+        PostResponse postResponse = new PostResponse();
+        postResponse.setContent(Collections.singletonList(postDTO));
+        when(postService.getAllPostsSlice(0,10,"title", "asc", true)).thenReturn(postResponse);
+
+        PostResponse response = postController.getAllPosts(0,10,"title","asc","slice",null,true,"full","all",3);
+
+        assertEquals(postResponse, response);
+        verify(postService).getAllPostsSlice(0,10,"title", "asc", true);
+        verify(postService, never()).getAllPosts(anyInt(),anyInt(),anyString(),anyString());
+    }
+
     @Test
     void getPostById_ShouldReturnPost() {
         when(postService.getPostById(1L)).thenReturn(postDTO);
 
-        ResponseEntity<PostDTO> response = postController.getPostById(1L);
+        ResponseEntity<PostDTO> response = postController.getPostById(1L,"all",10);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(postDTO, response.getBody());
         verify(postService).getPostById(1L);
     }
 
+    @Test
+    void getPostById_ShouldReturnLatestComments_whenRequested(){
+        postDTO.setCommentCount(42L);
+        when(postService.getPostByIdWithLatestComments(1L, 5)).thenReturn(postDTO);
+
+        ResponseEntity<PostDTO> response = postController.getPostById(1L,"latest",5);
+
+        assertEquals(42L, response.getBody().getCommentCount());
+        verify(postService).getPostByIdWithLatestComments(1L, 5);
+        verify(postService, never()).getPostById(any());
+    }
+
+    @Test
+    void getAllPosts_ShouldReturnLatestComments_whenRequested(){
+        PostResponse postResponse = new PostResponse();
+        postResponse.setContent(Collections.singletonList(postDTO));
+        when(postService.getAllPostsWithLatestComments(0,10,"title","asc",3)).thenReturn(postResponse);
+
+        PostResponse response = postController.getAllPosts(0,10,"title","asc","offset",null,false,"full","latest",3);
+
+        assertEquals(postResponse, response);
+        verify(postService, never()).getAllPosts(0,10,"title","asc");
+    }
+
     @Test
     void updatePost_ShouldReturnUpdatedPost() {
         when(postService.updatePost(any(PostDTO.class), eq(1L))).thenReturn(postDTO);
@@ -95,11 +148,90 @@ public class PostControllerTest {
     @Test
     void getPostsByCategory_ShouldReturnListOfPosts() {
         when(postService.getPostsByCategory(1L)).thenReturn(Collections.singletonList(postDTO));
-        ResponseEntity<List<PostDTO>> response = postController.getPostsByCategory(1L);
+        ResponseEntity<List<PostDTO>> response = postController.getPostsByCategory(1L, "full");
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(Collections.singletonList(postDTO), response.getBody());
         verify(postService).getPostsByCategory(1L);
     }
 
+    @Test
+    void getAllPosts_ShouldReturnSummaries_WhenSummaryViewRequested(){
+        PostResponse postResponse = new PostResponse();
+        postResponse.setContent(Collections.singletonList(new PostDTO(1L, "Test Title", "Test Description", 1L, 2L)));
+        when(postService.getAllPostSummaries(0,10,"title", "asc")).thenReturn(postResponse);
+
+        PostResponse response = postController.getAllPosts(0,10,"title","asc","offset",null,false,"summary","all",3);
+
+        assertEquals(2L, response.getContent().get(0).getCommentCount());
+        verify(postService).getAllPostSummaries(0,10,"title", "asc");
+        verify(postService, never()).getAllPosts(anyInt(),anyInt(),anyString(),anyString());
+    }
+
+    @Test
+    void searchPosts_ShouldReturnSummaries_WhenSummaryViewRequested() {
+        PostDTO summary = new PostDTO(1L, "Test Title", "Test Description", 1L, 0L);
+        when(postService.searchPostSummaries("Test")).thenReturn(Collections.singletonList(summary));
+
+        ResponseEntity<List<PostDTO>> response = postController.searchPosts("Test", "summary", null, null, null);
+
+        assertEquals(Collections.singletonList(summary), response.getBody());
+        verify(postService, never()).searchPost(anyString());
+    }
+
+    @Test
+    void getAllPosts_ShouldRejectSummaryView_WhenPagedByCursorOrSlice(){
+        BlogAPIException cursor = assertThrows(BlogAPIException.class,
+                () -> postController.getAllPosts(0,10,"title","asc","cursor",null,false,"summary","all",3));
+        BlogAPIException slice = assertThrows(BlogAPIException.class,
+                () -> postController.getAllPosts(0,10,"title","asc","slice",null,false,"summary","all",3));
+
+        assertEquals(HttpStatus.BAD_REQUEST, cursor.getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, slice.getStatus());
+        verifyNoInteractions(postService);
+    }
+
+    @Test
+    void getAllPosts_ShouldRejectLatestComments_WhenPagedByCursorOrSlice(){
+        BlogAPIException cursor = assertThrows(BlogAPIException.class,
+                () -> postController.getAllPosts(0,10,"title","asc","offset","cursor",false,"full","latest",3));
+        BlogAPIException slice = assertThrows(BlogAPIException.class,
+                () -> postController.getAllPosts(0,10,"title","asc","slice",null,false,"full","latest",3));
+
+        assertEquals(HttpStatus.BAD_REQUEST, cursor.getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, slice.getStatus());
+        verifyNoInteractions(postService);
+    }
+
+    @Test
+    void searchPosts_ShouldPageSummaries_WhenLimitRequested() {
+        PostDTO summary = new PostDTO(1L, "Test Title", "Test Description", 1L, 0L);
+        when(postService.searchPostSummaries("Test", 0, 5)).thenReturn(Collections.singletonList(summary));
+
+        ResponseEntity<List<PostDTO>> response = postController.searchPosts("Test", "summary", null, null, 5);
+
+        assertEquals(Collections.singletonList(summary), response.getBody());
+        verify(postService, never()).searchPostSummaries("Test");
+    }
+
+    @Test
+    void searchPosts_ShouldReturnTopHits_WhenLimitRequested() {
+        when(postService.searchPost("Test", 0, 5)).thenReturn(Collections.singletonList(postDTO));
+
+        ResponseEntity<List<PostDTO>> response = postController.searchPosts("Test", "full", null, null, 5);
+
+        assertEquals(Collections.singletonList(postDTO), response.getBody());
+        verify(postService).searchPost("Test", 0, 5);
+    }
+
+    @Test
+    void suggestTitles_ShouldReturnTitlesForPrefix() {
+        when(postService.suggestTitles("Te", 10)).thenReturn(List.of("Test Title"));
+
+        ResponseEntity<List<String>> response = postController.suggestTitles("Te", 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of("Test Title"), response.getBody());
+    }
+
 }
@@ -0,0 +1,141 @@
+package com.springboot.blog.entity;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//a post with many comments against a real (H2) persistence context: adding comments must not load the collection or
+//the post, and comments must hash without touching the lazy post or colliding on equal fields
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class PostCommentsTest {
+    private static final int COMMENTS = 10_000;
+    private static final int EXISTING_COMMENTS = 5;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long postId;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Post post = new Post();
+        post.setTitle("Viral post");
+        post.setDescription("Commented a lot");
+        post.setContent("Content");
+        entityManager.persist(post);
+        for (int i = 0; i < EXISTING_COMMENTS; i++) {
+            entityManager.persist(comment(post));
+        }
+        entityManager.flush();
+        postId = post.getId();
+        // start every test with an empty persistence context so nothing is served from the first-level cache
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    //every comment has the same fields, so any field based equality would make them all equal
+    private static Comment comment(Post post) {
+        Comment comment = new Comment();
+        comment.setName("Reader");
+        comment.setEmail("reader@example.com");
+        comment.setBody("Same comment");
+        comment.setPost(post);
+        return comment;
+    }
+
+    @Test
+    void addingComments_ShouldOnlyInsert_withoutLoadingTheCollection() {
+        Post post = entityManager.find(Post.class, postId);
+        statistics.clear();
+
+        for (int i = 0; i < COMMENTS; i++) {
+            post.getComments().add(comment(post));
+        }
+        entityManager.flush();
+
+        assertFalse(Hibernate.isInitialized(post.getComments()));
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(COMMENTS, statistics.getEntityInsertCount());
+        assertEquals(COMMENTS, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void comments_ShouldLoadInIdOrder_withOneQuery() {
+        Post post = entityManager.find(Post.class, postId);
+        for (int i = 0; i < COMMENTS; i++) {
+            post.getComments().add(comment(post));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<Comment> comments = entityManager.find(Post.class, postId).getComments();
+        List<Long> ids = comments.stream().map(Comment::getId).toList();
+
+        assertEquals(EXISTING_COMMENTS + COMMENTS, ids.size());
+        assertEquals(ids.stream().sorted().toList(), ids);
+        assertEquals(1, statistics.getCollectionLoadCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void hashing_ShouldNotTouchThePost_orCollideOnEqualFields() {
+        Post post = entityManager.getReference(Post.class, postId);
+        List<Comment> comments = new ArrayList<>(COMMENTS);
+        for (int i = 0; i < COMMENTS; i++) {
+            comments.add(comment(post));
+        }
+
+        Set<Comment> set = new HashSet<>(comments);
+        Set<Integer> hashes = new HashSet<>();
+        comments.forEach(comment -> {
+            hashes.add(comment.hashCode());
+            assertFalse(comment.toString().contains("post"));
+        });
+
+        assertEquals(COMMENTS, set.size());
+        //identity hashes, a handful of chance collisions at most instead of one bucket for all of them
+        assertTrue(hashes.size() > COMMENTS - 10);
+        assertFalse(Hibernate.isInitialized(post));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void hashCode_ShouldNotChange_whenTheIdIsAssigned() {
+        Post post = entityManager.find(Post.class, postId);
+        Set<Comment> set = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            Comment comment = comment(post);
+            set.add(comment);
+            entityManager.persist(comment);
+        }
+        entityManager.flush();
+
+        set.forEach(comment -> {
+            assertNotEquals(0, comment.getId());
+            assertTrue(set.contains(comment));
+        });
+    }
+}
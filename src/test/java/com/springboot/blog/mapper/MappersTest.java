@@ -0,0 +1,93 @@
+package com.springboot.blog.mapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.blog.entity.Category;
+import com.springboot.blog.entity.Comment;
+import com.springboot.blog.entity.Post;
+import com.springboot.blog.payload.CategoryDTO;
+import com.springboot.blog.payload.CommentDTO;
+import com.springboot.blog.payload.PostDTO;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//the hand-written mappers must serialize exactly like the ModelMapper they replaced
+public class MappersTest {
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    static Post post(long id, int comments) {
+        Category category = new Category(7L, "Java", "Java posts", null);
+        Post post = new Post(id, "Title " + id, "Description of post " + id, "Content of post " + id, new ArrayList<>(), category, 0, null);
+        for (int i = 0; i < comments; i++) {
+            post.getComments().add(new Comment(id * 1000 + i, "Reader " + i, "reader" + i + "@example.com",
+                    "Comment number " + i + " on post " + id, post));
+        }
+        return post;
+    }
+
+    @Test
+    void postToDTO_ShouldSerializeLikeModelMapper() throws Exception {
+        //enough comments for the set to resize a few times
+        Post post = post(1, 40);
+
+        assertEquals(objectMapper.writeValueAsString(modelMapper.map(post, PostDTO.class)),
+                objectMapper.writeValueAsString(PostMapper.toDTO(post)));
+    }
+
+    @Test
+    void postToDTO_ShouldSerializeLikeModelMapper_withoutCategoryOrComments() throws Exception {
+        Post post = post(2, 0);
+        post.setCategory(null);
+
+        assertEquals(objectMapper.writeValueAsString(modelMapper.map(post, PostDTO.class)),
+                objectMapper.writeValueAsString(PostMapper.toDTO(post)));
+    }
+
+    @Test
+    void postToEntity_ShouldCopyTheScalarFields() {
+        PostDTO postDTO = PostMapper.toDTO(post(3, 2));
+
+        Post post = PostMapper.toEntity(postDTO);
+
+        assertEquals(3L, post.getId());
+        assertEquals("Title 3", post.getTitle());
+        assertEquals("Description of post 3", post.getDescription());
+        assertEquals("Content of post 3", post.getContent());
+        assertTrue(post.getComments().isEmpty());
+        assertNull(post.getCategory());
+    }
+
+    @Test
+    void commentAndCategory_ShouldSerializeLikeModelMapper() throws Exception {
+        Comment comment = post(4, 1).getComments().iterator().next();
+        Category category = new Category(7L, "Java", "Java posts", null);
+
+        assertEquals(objectMapper.writeValueAsString(modelMapper.map(comment, CommentDTO.class)),
+                objectMapper.writeValueAsString(CommentMapper.toDTO(comment)));
+        assertEquals(objectMapper.writeValueAsString(modelMapper.map(category, CategoryDTO.class)),
+                objectMapper.writeValueAsString(CategoryMapper.toDTO(category)));
+    }
+
+    @Test
+    void commentAndCategoryToEntity_ShouldMatchModelMapper() {
+        CommentDTO commentDTO = CommentMapper.toDTO(post(5, 1).getComments().iterator().next());
+        CategoryDTO categoryDTO = new CategoryDTO(7L, "Java", "Java posts");
+
+        //comments are equal by identity only, so field by field
+        Comment expected = modelMapper.map(commentDTO, Comment.class);
+        Comment comment = CommentMapper.toEntity(commentDTO);
+        assertEquals(expected.getId(), comment.getId());
+        assertEquals(expected.getName(), comment.getName());
+        assertEquals(expected.getEmail(), comment.getEmail());
+        assertEquals(expected.getBody(), comment.getBody());
+        assertNull(comment.getPost());
+        Category category = CategoryMapper.toEntity(categoryDTO);
+        assertEquals(7L, category.getId());
+        assertEquals("Java", category.getName());
+        assertEquals("Java posts", category.getDescription());
+    }
+}
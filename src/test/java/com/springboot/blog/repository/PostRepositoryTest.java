@@ -0,0 +1,174 @@
+package com.springboot.blog.repository;
+
+import com.springboot.blog.cache.CommentCountReconciler;
+import com.springboot.blog.entity.Category;
+import com.springboot.blog.entity.Comment;
+import com.springboot.blog.entity.Post;
+import com.springboot.blog.payload.PostDTO;
+import com.springboot.blog.utils.PostCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class PostRepositoryTest {
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 7; i++) {
+            Post post = new Post();
+            post.setTitle("Title " + (char) ('g' - i));
+            post.setDescription("Description " + i);
+            post.setContent("Content " + i);
+            postRepository.save(post);
+        }
+    }
+
+    @Test
+    void findBy_ShouldScrollAllPostsByKeyset() {
+        Sort sort = Sort.by(Sort.Direction.ASC, "title").and(Sort.by(Sort.Direction.ASC, "id"));
+        List<String> titles = new ArrayList<>();
+        ScrollPosition position = ScrollPosition.keyset();
+
+        Window<Post> window;
+        do {
+            window = postRepository.findBy(position, sort, Limit.of(3));
+            window.forEach(post -> titles.add(post.getTitle()));
+            if (window.hasNext()) {
+                // round-trip the position through the opaque cursor as the API does
+                KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+                String cursor = new PostCursor("title", "asc", last.getKeys()).encode();
+                position = ScrollPosition.forward(PostCursor.decode(cursor).getKeys());
+            }
+        } while (window.hasNext());
+
+        assertEquals(List.of("Title a", "Title b", "Title c", "Title d", "Title e", "Title f", "Title g"), titles);
+    }
+
+    @Test
+    void findAllBy_ShouldReportNextSliceWithoutCounting() {
+        Slice<Post> first = postRepository.findAllBy(PageRequest.of(0, 5, Sort.by("id")));
+        Slice<Post> second = postRepository.findAllBy(PageRequest.of(1, 5, Sort.by("id")));
+
+        assertEquals(5, first.getNumberOfElements());
+        assertTrue(first.hasNext());
+        assertEquals(2, second.getNumberOfElements());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void findAllSummaries_ShouldProjectCategoryAndCommentCount() {
+        Category category = categoryRepository.save(new Category(null, "Tech", "Technology", null));
+        Post post = new Post();
+        post.setTitle("Summary title");
+        post.setDescription("Summary description");
+        post.setContent("Summary content");
+        post.setCategory(category);
+        post = postRepository.save(post);
+        for (int i = 0; i < 2; i++) {
+            Comment comment = new Comment();
+            comment.setName("Reader");
+            comment.setEmail("reader@example.com");
+            comment.setBody("Comment body " + i);
+            comment.setPost(post);
+            commentRepository.save(comment);
+            postRepository.addToCommentCount(post.getId(), 1);
+        }
+
+        Page<PostDTO> summaries = postRepository.findAllSummaries(PageRequest.of(0, 10, Sort.by("title").descending()));
+        List<PostDTO> byCategory = postRepository.findSummariesByCategoryId(category.getId());
+        List<PostDTO> searched = postRepository.searchPostSummaries("Summary");
+
+        assertEquals(8, summaries.getTotalElements());
+        assertEquals("Title g", summaries.getContent().get(0).getTitle());
+        assertEquals(1, byCategory.size());
+        PostDTO summary = byCategory.get(0);
+        assertEquals("Summary title", summary.getTitle());
+        assertEquals(category.getId(), summary.getCategoryId());
+        assertEquals(2L, summary.getCommentCount());
+        assertNull(summary.getContent());
+        assertNull(summary.getComments());
+        assertEquals(1, searched.size());
+    }
+
+    @Test
+    void findAll_ShouldSortByCommentCount() {
+        List<Post> posts = postRepository.findAll(Sort.by("id"));
+        postRepository.addToCommentCount(posts.get(3).getId(), 5);
+        postRepository.addToCommentCount(posts.get(1).getId(), 2);
+
+        Page<Post> page = postRepository.findAll(PageRequest.of(0, 2, Sort.by("commentCount").descending()));
+
+        assertEquals(List.of(posts.get(3).getId(), posts.get(1).getId()), page.map(Post::getId).getContent());
+    }
+
+    @Test
+    void reconcileCommentCounts_ShouldOnlyRecountDriftedPostsInRange() {
+        List<Post> posts = postRepository.findAll(Sort.by("id"));
+        Post post = posts.get(0);
+        Comment comment = new Comment();
+        comment.setName("Reader");
+        comment.setEmail("reader@example.com");
+        comment.setBody("Comment body");
+        comment.setPost(post);
+        commentRepository.save(comment);
+        //drifted: one comment but a count of 3, and a post without comments counted as 4
+        postRepository.addToCommentCount(post.getId(), 3);
+        postRepository.addToCommentCount(posts.get(1).getId(), 4);
+        Long lastId = posts.get(posts.size() - 1).getId();
+
+        assertEquals(0, postRepository.reconcileCommentCounts(lastId, lastId + 10));
+        assertEquals(2, postRepository.reconcileCommentCounts(0L, lastId));
+        assertEquals(0, postRepository.reconcileCommentCounts(0L, lastId));
+
+        List<PostDTO> summaries = postRepository.findSummariesByIdIn(List.of(post.getId(), posts.get(1).getId())).stream()
+                .sorted(Comparator.comparing(PostDTO::getId)).toList();
+        assertEquals(1L, summaries.get(0).getCommentCount());
+        assertEquals(0L, summaries.get(1).getCommentCount());
+    }
+
+    @Test
+    void backfill_ShouldCountExistingComments_ofPostsThatStartAtZero() {
+        //comments written before comment_count existed: the column was added as 0 and never incremented
+        Post post = postRepository.findAll(Sort.by("id")).get(0);
+        for (int i = 0; i < 3; i++) {
+            Comment comment = new Comment();
+            comment.setName("Reader");
+            comment.setEmail("reader@example.com");
+            comment.setBody("Comment body " + i);
+            comment.setPost(post);
+            commentRepository.save(comment);
+        }
+        assertEquals(0L, postRepository.findSummariesByIdIn(List.of(post.getId())).get(0).getCommentCount());
+        assertEquals(List.of(post.getId()), postRepository.findUncountedIds(Limit.of(1)));
+
+        new CommentCountReconciler(postRepository, new SimpleMeterRegistry()).backfillUncounted();
+        assertEquals(List.of(), postRepository.findUncountedIds(Limit.of(1)));
+        //a comment deleted afterwards lowers the real count instead of going below zero
+        postRepository.addToCommentCount(post.getId(), -1);
+
+        assertEquals(2L, postRepository.findSummariesByIdIn(List.of(post.getId())).get(0).getCommentCount());
+    }
+}
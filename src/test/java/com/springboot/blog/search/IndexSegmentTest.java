@@ -0,0 +1,112 @@
+package com.springboot.blog.search;
+
+import com.springboot.blog.entity.Post;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexSegmentTest {
+    @TempDir
+    Path directory;
+
+    private PostSearchIndex postSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        postSearchIndex = new PostSearchIndex("index", 100, 3.0, 1.5, 1.0);
+        postSearchIndex.index(post(1L, "Spring Boot basics", "Getting started", "Spring Boot makes REST easy"));
+        postSearchIndex.index(post(2L, "Hibernate tips", "Mapping associations", "Lazy loading in Spring Data"));
+        postSearchIndex.index(post(3L, "Docker", "Containers for Java", "Run MySQL next to the app"));
+    }
+
+    private Post post(Long id, String title, String description, String content) {
+        return new Post(id, title, description, content, null, null, 0, null);
+    }
+
+    private PostSearchIndex reload(PostSearchIndex index) throws IOException {
+        Path file = directory.resolve("posts-" + System.nanoTime() + ".seg");
+        index.writeSegment(file);
+        PostSearchIndex loaded = new PostSearchIndex("index", 100, 3.0, 1.5, 1.0);
+        loaded.load(IndexSegment.open(file));
+        return loaded;
+    }
+
+    @Test
+    void load_ShouldAnswerLikeTheIndexItWasWrittenFrom() throws IOException {
+        PostSearchIndex loaded = reload(postSearchIndex);
+
+        assertEquals(3, loaded.size());
+        for (String query : List.of("spring", "spring rest", "java mysql", "spring docker", "lazy")) {
+            assertEquals(postSearchIndex.search(query, 10), loaded.search(query, 10), query);
+        }
+    }
+
+    @Test
+    void open_ShouldExposeSortedDocsAndTerms() throws IOException {
+        Path file = directory.resolve("posts.seg");
+        postSearchIndex.writeSegment(file);
+
+        IndexSegment segment = IndexSegment.open(file);
+
+        assertEquals(3L, segment.highWaterPostId());
+        assertEquals(3, segment.docCount());
+        assertEquals(1, segment.docIndex(2L));
+        assertEquals(-1, segment.docIndex(4L));
+        int spring = segment.findTerm("spring");
+        assertTrue(spring >= 0);
+        assertEquals(2, segment.postingCount(spring));
+        assertEquals(-1, segment.findTerm("kotlin"));
+        for (int term = 1; term < segment.termCount(); term++) {
+            assertTrue(segment.term(term - 1).compareTo(segment.term(term)) < 0);
+        }
+    }
+
+    @Test
+    void load_ShouldLayerUpdatesAndDeletesOverTheSegment() throws IOException {
+        PostSearchIndex loaded = reload(postSearchIndex);
+
+        loaded.index(post(1L, "Kotlin basics", "Getting started", "Coroutines"));
+        loaded.remove(3L);
+        loaded.index(post(4L, "Spring Security", "JWT", "Stateless spring auth"));
+
+        assertEquals(List.of(4L, 2L), loaded.search("spring", 10));
+        assertEquals(List.of(1L), loaded.search("kotlin", 10));
+        assertTrue(loaded.search("docker", 10).isEmpty());
+        assertEquals(3, loaded.size());
+
+        //merging the segment and the heap postings into a new segment keeps the same answers
+        PostSearchIndex merged = reload(loaded);
+        assertEquals(3, merged.size());
+        for (String query : List.of("spring", "kotlin", "docker", "spring jwt")) {
+            assertEquals(loaded.search(query, 10), merged.search(query, 10), query);
+        }
+    }
+
+    @Test
+    void open_ShouldRejectFilesThatAreNotSegments() throws IOException {
+        Path file = Files.writeString(directory.resolve("posts.seg"), "not a segment");
+
+        assertThrows(IOException.class, () -> IndexSegment.open(file));
+    }
+
+    @Test
+    void flush_ShouldPersistOnlyReadyIndexes() {
+        SearchIndexStore store = new SearchIndexStore(postSearchIndex, directory.toString());
+        store.flush();
+        assertNull(store.open());
+
+        postSearchIndex.markReady();
+        store.flush();
+
+        IndexSegment segment = store.open();
+        assertNotNull(segment);
+        assertEquals(3, segment.docCount());
+    }
+}
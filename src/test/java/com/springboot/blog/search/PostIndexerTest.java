@@ -0,0 +1,137 @@
+package com.springboot.blog.search;
+
+import com.springboot.blog.entity.Post;
+import com.springboot.blog.repository.PostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+//startup builds against the posts table (H2), with the segment persisted between two "runs" of the app
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PostIndexerTest {
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    private Post spring;
+    private Post docker;
+
+    @BeforeEach
+    void setUp() {
+        spring = postRepository.save(post("Spring Boot basics", "Getting started with spring"));
+        docker = postRepository.save(post("Docker", "Containers for Java"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        postRepository.deleteAll();
+    }
+
+    private static Post post(String title, String content) {
+        Post post = new Post();
+        post.setTitle(title);
+        post.setDescription("Description of " + title);
+        post.setContent(content);
+        return post;
+    }
+
+    //one run of the app: fresh in-memory indexes over the shared table and segment directory
+    private record Run(PostIndexer indexer, PostSearchIndex postSearchIndex, TitleSuggester titleSuggester) {
+    }
+
+    private Run start(PostRepository repository) {
+        PostSearchIndex postSearchIndex = new PostSearchIndex("index", 100, 3.0, 1.5, 1.0);
+        TitleSuggester titleSuggester = new TitleSuggester(new SimpleMeterRegistry());
+        PostIndexer indexer = new PostIndexer(repository, postSearchIndex, titleSuggester,
+                new SearchIndexStore(postSearchIndex, directory.toString()), new TrigramIndex("index", 100, new SimpleMeterRegistry()));
+        indexer.buildIndexes();
+        return new Run(indexer, postSearchIndex, titleSuggester);
+    }
+
+    @Test
+    void buildIndexes_ShouldCatchUpWithPostsUpdatedBehindTheSegment() {
+        start(postRepository);
+        //written while the app was down, or by another instance
+        spring.setContent("Kubernetes deployments");
+        postRepository.save(spring);
+        Post added = postRepository.save(post("Hibernate tips", "Lazy loading"));
+
+        PostSearchIndex restarted = start(postRepository).postSearchIndex();
+
+        assertEquals(List.of(spring.getId()), restarted.search("kubernetes", 10));
+        assertEquals(List.of(), restarted.search("started", 10));
+        assertEquals(List.of(added.getId()), restarted.search("lazy", 10));
+        assertEquals(3, restarted.size());
+    }
+
+    @Test
+    void buildIndexes_ShouldDropAPostDeletedBehindTheSegment() {
+        start(postRepository);
+        //below the segment's high-water id, so only the segment's ids give it away
+        postRepository.deleteById(spring.getId());
+
+        PostSearchIndex restarted = start(postRepository).postSearchIndex();
+
+        assertEquals(List.of(), restarted.search("spring", 10));
+        assertEquals(List.of(docker.getId()), restarted.search("docker", 10));
+        assertEquals(1, restarted.size());
+    }
+
+    @Test
+    void buildIndexes_ShouldDropADeletedPost_whenAnInsertKeepsTheCountEqual() {
+        start(postRepository);
+        //one post deleted and one added while the app was down, the table has as many posts as the segment
+        postRepository.deleteById(spring.getId());
+        Post added = postRepository.save(post("Hibernate tips", "Lazy loading"));
+
+        PostSearchIndex restarted = start(postRepository).postSearchIndex();
+
+        assertEquals(List.of(), restarted.search("spring", 10));
+        assertEquals(List.of(added.getId()), restarted.search("lazy", 10));
+        assertEquals(2, restarted.size());
+    }
+
+    @Test
+    void buildIndexes_ShouldNotPutBackAPostDeletedWhileTheBuildReadsIt() {
+        PostRepository racingRepository = mock(PostRepository.class);
+        Run[] run = new Run[1];
+        when(racingRepository.findBy(any(ScrollPosition.class), any(Sort.class), any(Limit.class))).thenAnswer(invocation -> {
+            //the batch was read from the table, then the post is deleted before the build gets to index it
+            if (run[0] != null) {
+                run[0].indexer().onDeleted(docker.getId());
+            }
+            return Window.from(List.of(spring, docker), position -> ScrollPosition.keyset());
+        });
+        PostSearchIndex postSearchIndex = new PostSearchIndex("index", 100, 3.0, 1.5, 1.0);
+        TitleSuggester titleSuggester = new TitleSuggester(new SimpleMeterRegistry());
+        run[0] = new Run(new PostIndexer(racingRepository, postSearchIndex, titleSuggester,
+                new SearchIndexStore(postSearchIndex, ""), new TrigramIndex("index", 100, new SimpleMeterRegistry())), postSearchIndex, titleSuggester);
+
+        run[0].indexer().buildIndexes();
+
+        assertEquals(List.of(), postSearchIndex.search("docker", 10));
+        assertEquals(List.of(), titleSuggester.suggest("doc", 10));
+        assertEquals(List.of("Spring Boot basics"), titleSuggester.suggest("spr", 10));
+    }
+}
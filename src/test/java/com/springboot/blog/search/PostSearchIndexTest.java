@@ -0,0 +1,100 @@
+package com.springboot.blog.search;
+
+import com.springboot.blog.entity.Post;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PostSearchIndexTest {
+    private PostSearchIndex postSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        postSearchIndex = new PostSearchIndex("index", 100, 3.0, 1.5, 1.0);
+        postSearchIndex.index(post(1L, "Spring Boot basics", "Getting started", "Spring Boot makes REST easy"));
+        postSearchIndex.index(post(2L, "Hibernate tips", "Mapping associations", "Lazy loading in Spring Data"));
+        postSearchIndex.index(post(3L, "Docker", "Containers for Java", "Run MySQL next to the app"));
+    }
+
+    private Post post(Long id, String title, String description, String content) {
+        return new Post(id, title, description, content, null, null, 0, null);
+    }
+
+    @Test
+    void tokenize_ShouldLowercaseAndSplitOnPunctuation() {
+        assertEquals(List.of("spring", "boot", "3", "rest", "api"), Tokenizer.tokenize("Spring-Boot 3: REST/API!"));
+    }
+
+    @Test
+    void search_ShouldMatchAllTermsAcrossFields() {
+        assertEquals(2, postSearchIndex.search("spring", 10).size());
+        assertEquals(List.of(1L), postSearchIndex.search("SPRING rest", 10));
+        assertEquals(List.of(3L), postSearchIndex.search("java mysql", 10));
+        assertTrue(postSearchIndex.search("spring docker", 10).isEmpty());
+        assertTrue(postSearchIndex.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    void index_ShouldReplaceTermsOfUpdatedPost() {
+        postSearchIndex.index(post(1L, "Kotlin basics", "Getting started", "Coroutines"));
+
+        assertEquals(List.of(2L), postSearchIndex.search("spring", 10));
+        assertEquals(List.of(1L), postSearchIndex.search("kotlin", 10));
+        assertEquals(3, postSearchIndex.size());
+    }
+
+    @Test
+    void remove_ShouldDropPostFromResults() {
+        postSearchIndex.remove(2L);
+
+        assertEquals(List.of(1L), postSearchIndex.search("spring", 10));
+        assertTrue(postSearchIndex.search("hibernate", 10).isEmpty());
+    }
+
+    @Test
+    void isAvailable_ShouldBeFalseUntilReadyOrInSqlMode() {
+        assertFalse(postSearchIndex.isAvailable());
+        postSearchIndex.markReady();
+        assertTrue(postSearchIndex.isAvailable());
+
+        PostSearchIndex sqlMode = new PostSearchIndex("sql", 100, 3.0, 1.5, 1.0);
+        sqlMode.markReady();
+        assertFalse(sqlMode.isAvailable());
+    }
+
+    @Test
+    void search_ShouldRankTitleMatchesAboveContentMatches() {
+        postSearchIndex.index(post(4L, "Caching", "Notes", "A long article that mentions caching once among many other words"));
+        postSearchIndex.index(post(5L, "Other", "Notes", "Nothing about it"));
+        postSearchIndex.index(post(6L, "Misc", "Notes", "A short note on caching"));
+        postSearchIndex.index(post(7L, "Caching in Spring", "Caching strategies", "Caching caching"));
+
+        assertEquals(List.of(7L, 4L, 6L), postSearchIndex.search("caching", 10));
+    }
+
+    @Test
+    void search_ShouldKeepOnlyTheTopKHits() {
+        for (long id = 10; id < 60; id++) {
+            postSearchIndex.index(post(id, "Common", "Notes", "common " + "filler ".repeat((int) id)));
+        }
+
+        List<Long> top = postSearchIndex.search("common", 3);
+
+        // shorter documents score higher, ties are broken by the lower id
+        assertEquals(List.of(10L, 11L, 12L), top);
+        assertEquals(50, postSearchIndex.search("common", 1000).size());
+    }
+
+    @Test
+    void search_ShouldReturnOnePastMaxResults_soCutOffResultsShow() {
+        PostSearchIndex capped = new PostSearchIndex("index", 1, 3.0, 1.5, 1.0);
+        capped.index(post(1L, "Spring Boot basics", "Getting started", "Spring Boot makes REST easy"));
+        capped.index(post(2L, "Hibernate tips", "Mapping associations", "Lazy loading in Spring Data"));
+        capped.index(post(3L, "Spring Security", "Filters", "Spring"));
+
+        assertEquals(2, capped.search("spring", 10).size());
+    }
+}
@@ -0,0 +1,65 @@
+package com.springboot.blog.search;
+
+import com.springboot.blog.entity.Post;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TitleSuggesterTest {
+    private SimpleMeterRegistry meterRegistry;
+    private TitleSuggester titleSuggester;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        titleSuggester = new TitleSuggester(meterRegistry);
+        titleSuggester.index(post(1L, "Spring Security"));
+        titleSuggester.index(post(2L, "Spring Boot"));
+        titleSuggester.index(post(3L, "Spring Data JPA"));
+        titleSuggester.index(post(4L, "Docker basics"));
+    }
+
+    private Post post(Long id, String title) {
+        return new Post(id, title, "Description", "Content", null, null, 0, null);
+    }
+
+    @Test
+    void suggest_ShouldReturnTitlesInAlphabeticalOrder() {
+        assertEquals(List.of("Spring Boot", "Spring Data JPA", "Spring Security"), titleSuggester.suggest("spr", 10));
+        assertEquals(List.of("Spring Boot", "Spring Data JPA"), titleSuggester.suggest("SPRING", 2));
+        assertEquals(List.of("Docker basics"), titleSuggester.suggest("d", 10));
+        assertTrue(titleSuggester.suggest("x", 10).isEmpty());
+        assertTrue(titleSuggester.suggest("", 10).isEmpty());
+    }
+
+    @Test
+    void index_ShouldMoveRenamedPost() {
+        titleSuggester.index(post(2L, "Docker compose"));
+
+        assertEquals(List.of("Spring Data JPA", "Spring Security"), titleSuggester.suggest("spring", 10));
+        assertEquals(List.of("Docker basics", "Docker compose"), titleSuggester.suggest("docker", 10));
+    }
+
+    @Test
+    void remove_ShouldPruneUnusedNodes() {
+        long nodesBefore = titleSuggester.nodeCount();
+        long bytesBefore = titleSuggester.estimatedMemoryBytes();
+
+        titleSuggester.index(post(5L, "Kubernetes"));
+        titleSuggester.remove(5L);
+
+        assertTrue(titleSuggester.suggest("k", 10).isEmpty());
+        assertEquals(nodesBefore, titleSuggester.nodeCount());
+        assertTrue(titleSuggester.estimatedMemoryBytes() <= bytesBefore + 64);
+    }
+
+    @Test
+    void metrics_ShouldReportFootprint() {
+        assertTrue(meterRegistry.get("post.suggest.memory").gauge().value() > 0);
+        assertEquals(titleSuggester.nodeCount(), (long) meterRegistry.get("post.suggest.nodes").gauge().value());
+    }
+}
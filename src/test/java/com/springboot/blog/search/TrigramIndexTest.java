@@ -0,0 +1,98 @@
+package com.springboot.blog.search;
+
+import com.springboot.blog.entity.Post;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrigramIndexTest {
+    private TrigramIndex trigramIndex;
+
+    @BeforeEach
+    void setUp() {
+        trigramIndex = new TrigramIndex("substring", 100, new SimpleMeterRegistry());
+        trigramIndex.index(post(1L, "Spring Boot basics", "Getting started", "Spring Boot makes REST easy"));
+        trigramIndex.index(post(2L, "Hibernate tips", "Mapping associations", "Lazy loading in Spring Data"));
+        trigramIndex.index(post(3L, "Docker", "Containers for Java", "Run MySQL next to the app"));
+    }
+
+    private Post post(Long id, String title, String description, String content) {
+        return new Post(id, title, description, content, null, null, 0, null);
+    }
+
+    @Test
+    void search_ShouldMatchSubstringsInsideWords() {
+        assertEquals(List.of(1L, 2L), trigramIndex.search("prin", 100));
+        assertEquals(List.of(2L), trigramIndex.search("ernat", 100));
+        assertEquals(List.of(1L), trigramIndex.search("BOOT MAKES", 100));
+        assertEquals(List.of(3L), trigramIndex.search("ysq", 100));
+    }
+
+    @Test
+    void search_ShouldVerifyCandidatesContainingAllTrigrams() {
+        //post 1 holds every trigram of "boot boot" but not the keyword itself
+        assertTrue(trigramIndex.search("boot boot", 100).isEmpty());
+        //a match may not span two fields
+        assertTrue(trigramIndex.search("basicsgetting", 100).isEmpty());
+        assertEquals(List.of(2L), trigramIndex.search("spring data", 100));
+        assertTrue(trigramIndex.search("kotlin", 100).isEmpty());
+    }
+
+    @Test
+    void index_ShouldReplaceTextOfUpdatedPost() {
+        trigramIndex.index(post(1L, "Kotlin basics", "Getting started", "Coroutines"));
+
+        assertEquals(List.of(2L), trigramIndex.search("spring", 100));
+        assertEquals(List.of(1L), trigramIndex.search("otli", 100));
+        assertEquals(3, trigramIndex.size());
+    }
+
+    @Test
+    void remove_ShouldDropPostFromResults() {
+        trigramIndex.remove(2L);
+
+        assertEquals(List.of(1L), trigramIndex.search("spring", 100));
+        assertTrue(trigramIndex.search("hibernate", 100).isEmpty());
+        assertEquals(2, trigramIndex.size());
+    }
+
+    @Test
+    void search_ShouldReturnTheFirstMatchesUpToTheLimit() {
+        assertEquals(List.of(1L), trigramIndex.search("spring", 1));
+        assertEquals(List.of(1L, 2L), trigramIndex.search("spring", 2));
+    }
+
+    @Test
+    void estimatedMemoryBytes_ShouldCoverThePostTexts_andShrinkOnRemove() {
+        long bytes = trigramIndex.estimatedMemoryBytes();
+        long textLength = "Spring Boot basicsGetting startedSpring Boot makes REST easy".length();
+
+        assertTrue(bytes > textLength);
+        trigramIndex.remove(1L);
+        assertTrue(trigramIndex.estimatedMemoryBytes() < bytes - textLength);
+    }
+
+    @Test
+    void supports_ShouldRejectShortKeywordsAndWildcards() {
+        assertTrue(trigramIndex.supports("boot"));
+        assertFalse(trigramIndex.supports("bo"));
+        assertFalse(trigramIndex.supports("bo%t"));
+        assertFalse(trigramIndex.supports("bo_t"));
+        assertFalse(trigramIndex.supports(null));
+    }
+
+    @Test
+    void isAvailable_ShouldOnlyBeTrueInSubstringModeOnceReady() {
+        assertFalse(trigramIndex.isAvailable());
+        trigramIndex.markReady();
+        assertTrue(trigramIndex.isAvailable());
+
+        TrigramIndex indexMode = new TrigramIndex("index", 100, new SimpleMeterRegistry());
+        indexMode.markReady();
+        assertFalse(indexMode.isAvailable());
+    }
+}
@@ -0,0 +1,106 @@
+package com.springboot.blog.security;
+
+import com.springboot.blog.cache.JwtClaimsCache;
+import com.springboot.blog.cache.TokenDenylist;
+import com.springboot.blog.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class JwtAuthenticationFilterTest {
+    private static final String SECRET = "daf66e01593f61a15b857cf433aae03a005812b31234e149036bcc8dee755dbb";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private UserDetailsService userDetailsService;
+    private String adminToken;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JwtTokenProvider(SECRET, 60_000, 600_000, new JwtClaimsCache(100, new SimpleMeterRegistry()),
+                new TokenDenylist(mock(RevokedTokenRepository.class), new SimpleMeterRegistry()));
+        userDetailsService = mock(UserDetailsService.class);
+        adminToken = jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken("admin@blog.com", null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private Authentication filter(JwtAuthenticationFilter filter, String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private Set<String> authorities(Authentication authentication) {
+        return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+    }
+
+    @Test
+    void doFilter_ShouldAuthorizeFromTokenRolesWithoutLoadingUser() throws Exception {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService, false);
+
+        Authentication authentication = filter(filter, adminToken);
+
+        assertEquals("admin@blog.com", authentication.getName());
+        assertEquals(Set.of("ROLE_ADMIN", "ROLE_USER"), authorities(authentication));
+        verify(userDetailsService, never()).loadUserByUsername(any());
+    }
+
+    @Test
+    void doFilter_ShouldLoadUser_whenTokenHasNoRolesClaim() throws Exception {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService, false);
+        String legacyToken = Jwts.builder()
+                .subject("admin@blog.com")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+        when(userDetailsService.loadUserByUsername("admin@blog.com"))
+                .thenReturn(new User("admin@blog.com", "secret", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        Authentication authentication = filter(filter, legacyToken);
+
+        assertEquals(Set.of("ROLE_USER"), authorities(authentication));
+        verify(userDetailsService).loadUserByUsername("admin@blog.com");
+    }
+
+    @Test
+    void doFilter_ShouldTakeRolesFromUser_whenRevalidating() throws Exception {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService, true);
+        when(userDetailsService.loadUserByUsername("admin@blog.com"))
+                .thenReturn(new User("admin@blog.com", "secret", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        Authentication authentication = filter(filter, adminToken);
+
+        //the admin role was revoked in the database, the token's claim no longer counts
+        assertEquals(Set.of("ROLE_USER"), authorities(authentication));
+        verify(userDetailsService).loadUserByUsername("admin@blog.com");
+    }
+}
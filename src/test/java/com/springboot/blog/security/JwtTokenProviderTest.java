@@ -0,0 +1,119 @@
+package com.springboot.blog.security;
+
+import com.springboot.blog.cache.JwtClaimsCache;
+import com.springboot.blog.cache.TokenDenylist;
+import com.springboot.blog.entity.RevokedToken;
+import com.springboot.blog.exception.BlogAPIException;
+import com.springboot.blog.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class JwtTokenProviderTest {
+    private static final String SECRET = "daf66e01593f61a15b857cf433aae03a005812b31234e149036bcc8dee755dbb";
+
+    private JwtClaimsCache claimsCache;
+    private RevokedTokenRepository revokedTokenRepository;
+    private TokenDenylist tokenDenylist;
+    private JwtTokenProvider jwtTokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        claimsCache = new JwtClaimsCache(100, new SimpleMeterRegistry());
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        tokenDenylist = new TokenDenylist(revokedTokenRepository, new SimpleMeterRegistry());
+        jwtTokenProvider = new JwtTokenProvider(SECRET, 60_000, 600_000, claimsCache, tokenDenylist);
+    }
+
+    @Test
+    void getClaims_ShouldVerifyOnceAndCacheUntilExpiry() {
+        String token = jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken("john", null));
+
+        Claims first = jwtTokenProvider.getClaims(token);
+        Claims second = jwtTokenProvider.getClaims(token);
+
+        assertEquals("john", first.getSubject());
+        assertSame(first, second);
+        assertEquals("john", jwtTokenProvider.getUsername(token));
+        assertEquals(1, claimsCache.size());
+    }
+
+    @Test
+    void getClaims_ShouldRejectTamperedToken() {
+        String token = jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken("john", null));
+        String otherKeyToken = Jwts.builder()
+                .subject("john")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET.replace('d', 'e'))))
+                .compact();
+
+        assertThrows(BlogAPIException.class, () -> jwtTokenProvider.getClaims(token.substring(0, 10)));
+        assertThrows(RuntimeException.class, () -> jwtTokenProvider.getClaims(otherKeyToken));
+        assertEquals(0, claimsCache.size());
+    }
+
+    @Test
+    void getClaims_ShouldRejectExpiredToken() {
+        String token = Jwts.builder()
+                .subject("john")
+                .expiration(new Date(System.currentTimeMillis() - 1_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+
+        BlogAPIException exception = assertThrows(BlogAPIException.class, () -> jwtTokenProvider.validateToken(token));
+        assertEquals("Expired JWT token", exception.getMessage());
+        assertEquals(0, claimsCache.size());
+    }
+
+    @Test
+    void getAccessClaims_ShouldRejectRefreshToken() {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("john", null);
+        String accessToken = jwtTokenProvider.generateToken(authentication);
+        String refreshToken = jwtTokenProvider.generateRefreshToken(authentication);
+
+        assertEquals("john", jwtTokenProvider.getAccessClaims(accessToken).getSubject());
+        assertEquals("john", jwtTokenProvider.getRefreshClaims(refreshToken).getSubject());
+        assertThrows(BlogAPIException.class, () -> jwtTokenProvider.getAccessClaims(refreshToken));
+        assertThrows(BlogAPIException.class, () -> jwtTokenProvider.getRefreshClaims(accessToken));
+    }
+
+    @Test
+    void revoke_ShouldRejectTokenFromThenOn_evenWhenClaimsAreCached() {
+        String token = jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken("john", null));
+        Claims claims = jwtTokenProvider.getClaims(token);
+
+        jwtTokenProvider.revoke(token);
+
+        BlogAPIException exception = assertThrows(BlogAPIException.class, () -> jwtTokenProvider.getClaims(token));
+        assertEquals("Revoked JWT token", exception.getMessage());
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        assertTrue(tokenDenylist.isRevoked(claims.getId()));
+    }
+
+    @Test
+    void load_ShouldRestoreRevocationsAfterRestart() {
+        String token = jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken("john", null));
+        String jti = jwtTokenProvider.getClaims(token).getId();
+        when(revokedTokenRepository.findByExpiresAtAfter(any(Instant.class)))
+                .thenReturn(List.of(new RevokedToken(jti, Instant.now().plusSeconds(60), Instant.now())));
+        TokenDenylist restarted = new TokenDenylist(revokedTokenRepository, new SimpleMeterRegistry());
+
+        restarted.load();
+
+        assertTrue(restarted.isRevoked(jti));
+        assertEquals(1, restarted.size());
+    }
+}
@@ -0,0 +1,148 @@
+package com.springboot.blog.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitFilterTest {
+    private final AtomicLong clock = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        //2 requests at once, then one per second
+        filter = new RateLimitFilter(true, Map.of(
+                RateLimitFilter.AUTH, new RateLimiter(2, 1, 1000, clock::get),
+                RateLimitFilter.AVAILABILITY, new RateLimiter(2, 1, 1000, clock::get),
+                RateLimitFilter.SEARCH, new RateLimiter(2, 1, 1000, clock::get),
+                RateLimitFilter.API, new RateLimiter(2, 1, 1000, clock::get)), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, String ip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void doFilter_ShouldReject_whenBucketIsEmpty() throws Exception {
+        assertEquals(200, perform("POST", "/api/auth/login", "10.0.0.1").getStatus());
+        assertEquals(200, perform("POST", "/api/auth/login", "10.0.0.1").getStatus());
+
+        MockHttpServletResponse rejected = perform("POST", "/api/auth/login", "10.0.0.1");
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertEquals(1, meterRegistry.get("http.rate.limited").tag("group", "auth").counter().count());
+    }
+
+    @Test
+    void doFilter_ShouldAllowAgain_afterRefill() throws Exception {
+        perform("POST", "/api/auth/login", "10.0.0.1");
+        perform("POST", "/api/auth/login", "10.0.0.1");
+        assertEquals(429, perform("POST", "/api/auth/login", "10.0.0.1").getStatus());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(200, perform("POST", "/api/auth/login", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void doFilter_ShouldKeepSeparateBucketsPerClientAndRouteGroup() throws Exception {
+        perform("POST", "/api/auth/login", "10.0.0.1");
+        perform("POST", "/api/auth/login", "10.0.0.1");
+
+        assertEquals(200, perform("POST", "/api/auth/login", "10.0.0.2").getStatus());
+        assertEquals(200, perform("GET", "/api/posts/search", "10.0.0.1").getStatus());
+        assertEquals(200, perform("GET", "/api/auth/availability", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void doFilter_ShouldLimitAvailabilityChecksInTheirOwnGroup() throws Exception {
+        perform("GET", "/api/auth/availability", "10.0.0.1");
+        perform("GET", "/api/auth/availability", "10.0.0.1");
+
+        assertEquals(429, perform("GET", "/api/auth/availability", "10.0.0.1").getStatus());
+        assertEquals(1, meterRegistry.get("http.rate.limited").tag("group", "availability").counter().count());
+        assertEquals(200, perform("POST", "/api/auth/login", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void doFilter_ShouldLimitSubjectAcrossAddresses() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("john", null, List.of()));
+
+        assertEquals(200, perform("GET", "/api/posts/search", "10.0.0.1").getStatus());
+        assertEquals(200, perform("GET", "/api/posts/search", "10.0.0.2").getStatus());
+
+        assertEquals(429, perform("GET", "/api/posts/search", "10.0.0.3").getStatus());
+    }
+
+    @Test
+    void doFilter_ShouldNotLimitOutsideTheApi() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, perform("GET", "/swagger-ui/index.html", "10.0.0.1").getStatus());
+        }
+    }
+
+    @Test
+    void tryAcquire_ShouldHandOutExactlyCapacity_underContention() throws Exception {
+        RateLimiter limiter = new RateLimiter(1000, 0.001, 10, clock::get);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CompletableFuture.allOf(IntStream.range(0, 8)
+                    .mapToObj(thread -> CompletableFuture.runAsync(() -> {
+                        for (int i = 0; i < 500; i++) {
+                            if (limiter.tryAcquire("client") == 0) {
+                                granted.incrementAndGet();
+                            }
+                        }
+                    }, executor))
+                    .toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1000, granted.get());
+    }
+
+    @Test
+    void clientCount_ShouldDropIdleClients_onceTheirBucketHasRefilled() {
+        RateLimiter limiter = new RateLimiter(2, 1, 1000, clock::get);
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+        assertEquals(2, limiter.clientCount());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+
+        assertEquals(0, limiter.clientCount());
+    }
+}
@@ -0,0 +1,110 @@
+package com.springboot.blog.service.impl;
+
+import com.springboot.blog.cache.RoleCache;
+import com.springboot.blog.cache.UserAvailabilityFilter;
+import com.springboot.blog.cache.UserDetailsCache;
+import com.springboot.blog.entity.Role;
+import com.springboot.blog.entity.User;
+import com.springboot.blog.exception.BlogAPIException;
+import com.springboot.blog.payload.RegisterDTO;
+import com.springboot.blog.security.JwtTokenProvider;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+//registration against real (H2) unique constraints: statements issued and duplicate detection
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({AuthServiceImpl.class, RoleCache.class})
+public class AuthServiceImplRegistrationTest {
+    @MockBean
+    private AuthenticationManager authenticationManager;
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+    @MockBean
+    private JwtTokenProvider jwtTokenProvider;
+    @MockBean
+    private UserDetailsCache userDetailsCache;
+    @MockBean
+    private UserAvailabilityFilter userAvailabilityFilter;
+    @MockBean
+    private UserDetailsService userDetailsService;
+    @Autowired
+    private AuthServiceImpl authService;
+    @Autowired
+    private RoleCache roleCache;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role();
+        role.setName("ROLE_USER");
+        entityManager.persist(role);
+        entityManager.persist(new User(null, "Taken", "taken", "taken@example.com", "hash", Set.of(role)));
+        entityManager.flush();
+        entityManager.clear();
+        roleCache.load();
+        when(passwordEncoder.encode(any())).thenReturn("hash");
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    private RegisterDTO registerDTO(String username, String email) {
+        RegisterDTO registerDTO = new RegisterDTO();
+        registerDTO.setName("New User");
+        registerDTO.setUsername(username);
+        registerDTO.setEmail(email);
+        registerDTO.setPassword("password");
+        return registerDTO;
+    }
+
+    @Test
+    void register_ShouldOnlyInsertUserAndRole() {
+        authService.register(registerDTO("newuser", "newuser@example.com"));
+        entityManager.flush();
+
+        // users row + users_roles row, no existence checks and no role lookup
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void register_ShouldReportTakenUsernameFromConstraint() {
+        BlogAPIException exception = assertThrows(BlogAPIException.class,
+                () -> authService.register(registerDTO("taken", "other@example.com")));
+
+        assertEquals("Username already exits", exception.getMessage());
+    }
+
+    @Test
+    void register_ShouldReportTakenEmailFromConstraint() {
+        BlogAPIException exception = assertThrows(BlogAPIException.class,
+                () -> authService.register(registerDTO("other", "taken@example.com")));
+
+        assertEquals("Email Id already exits", exception.getMessage());
+    }
+}
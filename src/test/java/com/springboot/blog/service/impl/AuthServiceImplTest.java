@@ -1,27 +1,39 @@
 package com.springboot.blog.service.impl;
 
+import com.springboot.blog.cache.RoleCache;
+import com.springboot.blog.cache.UserAvailabilityFilter;
 import com.springboot.blog.entity.Role;
 import com.springboot.blog.entity.User;
 import com.springboot.blog.exception.BlogAPIException;
+import com.springboot.blog.payload.AvailabilityDTO;
+import com.springboot.blog.payload.JwtAuthResponse;
 import com.springboot.blog.payload.LoginDTO;
 import com.springboot.blog.payload.RegisterDTO;
-import com.springboot.blog.repository.RoleRepository;
 import com.springboot.blog.repository.UserRepository;
 import com.springboot.blog.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
-import java.util.Optional;
+import java.sql.SQLException;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -34,7 +46,7 @@ public class AuthServiceImplTest {
     private UserRepository userRepository;
 
     @Mock
-    private RoleRepository roleRepository;
+    private RoleCache roleCache;
 
     @Mock
     private PasswordEncoder passwordEncoder;
@@ -42,6 +54,13 @@ public class AuthServiceImplTest {
     @Mock
     private JwtTokenProvider jwtTokenProvider;
 
+
+    @Mock
+    private UserAvailabilityFilter userAvailabilityFilter;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
     @InjectMocks
     private AuthServiceImpl authService;
     private LoginDTO loginDTO;
@@ -78,10 +97,12 @@ public class AuthServiceImplTest {
         Authentication authentication = mock(Authentication.class);
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
         when(jwtTokenProvider.generateToken(any(Authentication.class))).thenReturn("mock-jwt-token");
+        when(jwtTokenProvider.generateRefreshToken(any(Authentication.class))).thenReturn("mock-refresh-token");
 
-        String token = authService.login(loginDTO);
+        JwtAuthResponse response = authService.login(loginDTO);
 
-        assertEquals("mock-jwt-token", token);
+        assertEquals("mock-jwt-token", response.getAccessToken());
+        assertEquals("mock-refresh-token", response.getRefreshToken());
         verify(authenticationManager,times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(jwtTokenProvider, times(1)).generateToken(any(Authentication.class));
 
@@ -101,12 +122,15 @@ public class AuthServiceImplTest {
         verify(jwtTokenProvider, never()).generateToken(any(Authentication.class));
     }
 
+    private DataIntegrityViolationException duplicate(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Duplicate entry", new SQLException("Duplicate entry"), constraintName));
+    }
+
     @Test
     void testRegister_ShouldRegisterUser_WhenValidInput(){
-        when(userRepository.existsByUsername("testUser")).thenReturn(false);
-        when(userRepository.existsByEmail("testuser@example.com")).thenReturn(false);
         when(passwordEncoder.encode(any(String.class))).thenReturn("encoded-password");
-        when(roleRepository.findByName("ROLE_USER")).thenReturn(Optional.of(role));
+        when(roleCache.getReference("ROLE_USER")).thenReturn(role);
         when(userRepository.save(any(User.class))).thenReturn(user);
 
         String result = authService.register(registerDTO);
@@ -114,12 +138,16 @@ public class AuthServiceImplTest {
         assertEquals("register user successfully", result);
         verify(userRepository, times(1)).save(any(User.class));
         verify(passwordEncoder, times(1)).encode(anyString());
-        verify(roleRepository, times(1)).findByName("ROLE_USER");
+        verify(roleCache, times(1)).getReference("ROLE_USER");
+        verify(userRepository, never()).existsByUsername(anyString());
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(userAvailabilityFilter, times(1)).add("testuser", "testuser@example.com");
     }
 
     @Test
     void testRegister_ShouldThrowException_WhenUsernameExists() {
-        when(userRepository.existsByUsername("testuser")).thenReturn(true);
+        when(roleCache.getReference("ROLE_USER")).thenReturn(role);
+        when(userRepository.save(any(User.class))).thenThrow(duplicate("users." + User.USERNAME_CONSTRAINT));
 
         BlogAPIException exception = assertThrows(BlogAPIException.class, () -> {
             authService.register(registerDTO);
@@ -127,12 +155,13 @@ public class AuthServiceImplTest {
 
         assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
         assertEquals("Username already exits", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+        verify(userAvailabilityFilter, never()).add(anyString(), anyString());
     }
 
     @Test
     void testRegister_ShouldThrowException_WhenEmailExists() {
-        when(userRepository.existsByEmail("testuser@example.com")).thenReturn(true);
+        when(roleCache.getReference("ROLE_USER")).thenReturn(role);
+        when(userRepository.save(any(User.class))).thenThrow(duplicate("users." + User.EMAIL_CONSTRAINT));
 
         BlogAPIException exception = assertThrows(BlogAPIException.class, () -> {
             authService.register(registerDTO);
@@ -140,6 +169,109 @@ public class AuthServiceImplTest {
 
         assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
         assertEquals("Email Id already exits", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void testRegister_ShouldAskWhichValueIsTaken_WhenConstraintNameUnknown() {
+        when(roleCache.getReference("ROLE_USER")).thenReturn(role);
+        when(userRepository.save(any(User.class))).thenThrow(duplicate("UK_r43af9ap4edm43mmtq01oddj6"));
+        when(userRepository.existsByUsername("testuser")).thenReturn(false);
+        when(userRepository.existsByEmail("testuser@example.com")).thenReturn(true);
+
+        BlogAPIException exception = assertThrows(BlogAPIException.class, () -> {
+            authService.register(registerDTO);
+        });
+
+        assertEquals("Email Id already exits", exception.getMessage());
+    }
+
+    @Test
+    void testRegister_ShouldRethrowViolation_WhenNeitherValueIsTaken() {
+        DataIntegrityViolationException violation = duplicate("fk_users_roles_role_id");
+        when(roleCache.getReference("ROLE_USER")).thenReturn(role);
+        when(userRepository.save(any(User.class))).thenThrow(violation);
+
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class, () -> {
+            authService.register(registerDTO);
+        });
+
+        assertSame(violation, exception);
+        verify(userAvailabilityFilter, never()).add(anyString(), anyString());
+    }
+
+    @Test
+    void testCheckAvailability_ShouldNotQuery_WhenFilterHasNotSeenValues() {
+        when(userAvailabilityFilter.mightContainUsername("newuser")).thenReturn(false);
+        when(userAvailabilityFilter.mightContainEmail("new@example.com")).thenReturn(false);
+
+        AvailabilityDTO availability = authService.checkAvailability("newuser", "new@example.com");
+
+        assertEquals(true, availability.getUsernameAvailable());
+        assertEquals(true, availability.getEmailAvailable());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testCheckAvailability_ShouldQuery_WhenFilterMightContainValue() {
+        when(userAvailabilityFilter.mightContainUsername("testuser")).thenReturn(true);
+        when(userRepository.existsByUsername("testuser")).thenReturn(true);
+
+        AvailabilityDTO availability = authService.checkAvailability("testuser", null);
+
+        assertEquals(false, availability.getUsernameAvailable());
+        assertEquals(null, availability.getEmailAvailable());
+        verify(userRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    void testCheckAvailability_ShouldReportFree_WhenFilterHitIsFalsePositive() {
+        when(userAvailabilityFilter.mightContainEmail("new@example.com")).thenReturn(true);
+        when(userRepository.existsByEmail("new@example.com")).thenReturn(false);
+
+        AvailabilityDTO availability = authService.checkAvailability(null, "new@example.com");
+
+        assertEquals(true, availability.getEmailAvailable());
+    }
+
+    @Test
+    void testCheckAvailability_ShouldThrowException_WhenNothingIsAsked() {
+        BlogAPIException exception = assertThrows(BlogAPIException.class, () -> authService.checkAvailability(null, " "));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
+    @Test
+    void testRefresh_ShouldIssueAccessTokenWithCurrentRoles() {
+        Claims claims = Jwts.claims().subject("testuser@example.com").build();
+        when(jwtTokenProvider.getRefreshClaims("refresh-token")).thenReturn(claims);
+        when(userDetailsService.loadUserByUsername("testuser@example.com")).thenReturn(new org.springframework.security.core.userdetails.User(
+                "testuser@example.com", "encoded-password", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        when(jwtTokenProvider.generateToken(any(Authentication.class))).thenReturn("new-access-token");
+
+        JwtAuthResponse response = authService.refresh("refresh-token");
+
+        assertEquals("new-access-token", response.getAccessToken());
+        assertEquals("refresh-token", response.getRefreshToken());
+        verify(authenticationManager, never()).authenticate(any());
+    }
+
+    @Test
+    void testRefresh_ShouldThrowException_WhenUserNoLongerExists() {
+        Claims claims = Jwts.claims().subject("gone@example.com").build();
+        when(jwtTokenProvider.getRefreshClaims("refresh-token")).thenReturn(claims);
+        when(userDetailsService.loadUserByUsername("gone@example.com")).thenThrow(new UsernameNotFoundException("gone"));
+
+        BlogAPIException exception = assertThrows(BlogAPIException.class, () -> authService.refresh("refresh-token"));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, exception.getStatus());
+    }
+
+    @Test
+    void testLogout_ShouldRevokeRefreshAndAccessToken() {
+        authService.logout("refresh-token", "access-token");
+
+        verify(jwtTokenProvider).getRefreshClaims("refresh-token");
+        verify(jwtTokenProvider).revoke("refresh-token");
+        verify(jwtTokenProvider).revoke("access-token");
     }
 }
@@ -1,15 +1,18 @@
 package com.springboot.blog.service.impl;
 
+import com.springboot.blog.cache.PostCache;
+import com.springboot.blog.cache.PostCountCache;
 import com.springboot.blog.entity.Category;
 import com.springboot.blog.exception.ResourceNotFoundException;
 import com.springboot.blog.payload.CategoryDTO;
 import com.springboot.blog.repository.CategoryRepository;
+import com.springboot.blog.repository.PostRepository;
+import com.springboot.blog.search.PostIndexer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.modelmapper.ModelMapper;
 
 import java.util.Collections;
 import java.util.List;
@@ -17,14 +20,19 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class CategoryServiceImplTest {
     @Mock
     private CategoryRepository categoryRepository;
     @Mock
-    private ModelMapper mapper;
+    private PostCache postCache;
+    @Mock
+    private PostRepository postRepository;
+    @Mock
+    private PostIndexer postIndexer;
+    @Mock
+    private PostCountCache postCountCache;
     @InjectMocks
     private CategoryServiceImpl categoryService;
     private Category category;
@@ -46,9 +54,7 @@ public class CategoryServiceImplTest {
 
     @Test
     void testAddCategory_ShouldSaveAndReturnCategoryDTO_WhenValidCategoryDTO() {
-        when(mapper.map(any(CategoryDTO.class), eq(Category.class))).thenReturn(category);
         when(categoryRepository.save(any(Category.class))).thenReturn(category);
-        when(mapper.map(any(Category.class), eq(CategoryDTO.class))).thenReturn(categoryDTO);
 
         CategoryDTO savedCategoryDTO = categoryService.addCategory(categoryDTO);
 
@@ -60,7 +66,6 @@ public class CategoryServiceImplTest {
     @Test
     void testGetCategoryById_ShouldReturnCategoryDTO_WhenCategoryExists() {
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
-        when(mapper.map(any(Category.class), eq(CategoryDTO.class))).thenReturn(categoryDTO);
 
         CategoryDTO foundCategoryDTO = categoryService.getCategory(1L);
 
@@ -72,7 +77,6 @@ public class CategoryServiceImplTest {
     @Test
     void testGetAllCategories_ShouldReturnListOfCategoryDTOs() {
         when(categoryRepository.findAll()).thenReturn(Collections.singletonList(category));
-        when(mapper.map(any(Category.class), eq(CategoryDTO.class))).thenReturn(categoryDTO);
 
         List<CategoryDTO> categoryDTOList = categoryService.getAllCategories();
 
@@ -84,7 +88,6 @@ public class CategoryServiceImplTest {
     void testUpdateCategory_ShouldReturnUpdatedCategoryDTO_WhenCategoryExists() {
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
         when(categoryRepository.save(any(Category.class))).thenReturn(category);
-        when(mapper.map(any(Category.class), eq(CategoryDTO.class))).thenReturn(categoryDTO);
 
         CategoryDTO updatedCategoryDTO = categoryService.updateCategory(categoryDTO, 1L);
 
@@ -96,10 +99,14 @@ public class CategoryServiceImplTest {
     @Test
     void testDeleteCategory_ShouldRemoveCategory_WhenCategoryExists() {
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+        when(postRepository.findIdsByCategoryId(1L)).thenReturn(List.of(5L));
 
         categoryService.deleteCategory(1L);
 
         verify(categoryRepository, times(1)).delete(any(Category.class));
+        verify(postCache, times(1)).clear();
+        verify(postIndexer, times(1)).onDeleted(5L);
+        verify(postCountCache, times(1)).subtract(1);
     }
 
     @Test
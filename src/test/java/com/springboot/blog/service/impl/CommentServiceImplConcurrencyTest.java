@@ -0,0 +1,99 @@
+package com.springboot.blog.service.impl;
+
+import com.springboot.blog.cache.PostCache;
+import com.springboot.blog.entity.Comment;
+import com.springboot.blog.entity.Post;
+import com.springboot.blog.payload.CommentDTO;
+import com.springboot.blog.repository.CommentRepository;
+import com.springboot.blog.repository.PostRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//comment writes from several threads, each in its own committed transaction as in production, against H2
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(CommentServiceImpl.class)
+public class CommentServiceImplConcurrencyTest {
+    private static final int THREADS = 4;
+    private static final int COMMENTS_PER_THREAD = 25;
+
+    @MockBean
+    private PostCache postCache;
+    @Autowired
+    private CommentServiceImpl commentService;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        post = new Post();
+        post.setTitle("Concurrent post");
+        post.setDescription("Commented from many threads");
+        post.setContent("Content");
+        post = postRepository.save(post);
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        postRepository.deleteAll();
+    }
+
+    private void inParallel(IntConsumer task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CompletableFuture.allOf(IntStream.range(0, THREADS)
+                    .mapToObj(thread -> CompletableFuture.runAsync(() -> {
+                        for (int i = 0; i < COMMENTS_PER_THREAD; i++) {
+                            task.accept(thread * COMMENTS_PER_THREAD + i);
+                        }
+                    }, executor))
+                    .toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long storedCount() {
+        return postRepository.findById(post.getId()).orElseThrow().getCommentCount();
+    }
+
+    @Test
+    void commentCount_ShouldMatchComments_afterConcurrentCreatesAndDeletes() throws Exception {
+        inParallel(i -> commentService.createComment(post.getId(),
+                new CommentDTO(0, "Reader " + i, "reader@example.com", "Concurrent comment " + i)));
+
+        assertEquals(THREADS * COMMENTS_PER_THREAD, storedCount());
+
+        List<Long> ids = commentRepository.findAll().stream().map(Comment::getId).toList();
+        inParallel(i -> {
+            if (i % 2 == 0) {
+                commentService.deleteComment(post.getId(), ids.get(i));
+            }
+        });
+
+        assertEquals(THREADS * COMMENTS_PER_THREAD / 2, storedCount());
+        assertEquals(commentRepository.count(), storedCount());
+    }
+}
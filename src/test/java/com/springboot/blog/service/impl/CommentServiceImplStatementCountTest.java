@@ -0,0 +1,193 @@
+package com.springboot.blog.service.impl;
+
+import com.springboot.blog.cache.PostCache;
+import com.springboot.blog.entity.Comment;
+import com.springboot.blog.entity.Post;
+import com.springboot.blog.exception.BlogAPIException;
+import com.springboot.blog.exception.ResourceNotFoundException;
+import com.springboot.blog.payload.CommentDTO;
+import com.springboot.blog.payload.CommentResponse;
+import com.springboot.blog.repository.PostRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//counts the SQL statements and entities the comment paths load against a real (H2) persistence context
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(CommentServiceImpl.class)
+public class CommentServiceImplStatementCountTest {
+    private static final int COMMENTS = 25;
+
+    @MockBean
+    private PostCache postCache;
+    @Autowired
+    private CommentServiceImpl commentService;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Post post;
+    private List<Long> commentIds;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        post = persistPost("Viral post");
+        Post otherPost = persistPost("Other post");
+        commentIds = new ArrayList<>();
+        for (int i = 0; i < COMMENTS; i++) {
+            commentIds.add(persistComment(post, i).getId());
+            //interleaved, so the other post's comments sit between this post's ids
+            persistComment(otherPost, i);
+        }
+        entityManager.flush();
+        postRepository.addToCommentCount(post.getId(), COMMENTS);
+        // start every test with an empty persistence context so nothing is served from the first-level cache
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    private Post persistPost(String title) {
+        Post post = new Post();
+        post.setTitle(title);
+        post.setDescription("Description of " + title);
+        post.setContent("Content of " + title);
+        entityManager.persist(post);
+        return post;
+    }
+
+    private Comment persistComment(Post post, int i) {
+        Comment comment = new Comment();
+        comment.setName("Reader");
+        comment.setEmail("reader@example.com");
+        comment.setBody("Comment number " + i);
+        comment.setPost(post);
+        entityManager.persist(comment);
+        return comment;
+    }
+
+    @Test
+    void getCommentsByPostId_ShouldPageInIdOrder_withOneQueryAndNoEntitiesPerPage() {
+        List<Long> seen = new ArrayList<>();
+        Long cursor = null;
+        int pages = 0;
+        CommentResponse page;
+        do {
+            page = commentService.getCommentsByPostId(post.getId(), cursor, 10);
+            page.getContent().stream().map(CommentDTO::getId).forEach(seen::add);
+            cursor = page.getNext();
+            pages++;
+        } while (!page.isLast());
+
+        assertEquals(commentIds, seen);
+        assertEquals(3, pages);
+        assertEquals(pages, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getCommentsByPostId_ShouldReturnEmptyLastPage_whenPostHasNoComments() {
+        CommentResponse page = commentService.getCommentsByPostId(post.getId() + 100, null, 10);
+
+        assertTrue(page.getContent().isEmpty());
+        assertTrue(page.isLast());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    void getCommentById_ShouldCostOneRead_withoutLoadingThePost() {
+        CommentDTO comment = commentService.getCommentById(post.getId(), commentIds.get(0));
+
+        assertEquals(commentIds.get(0), comment.getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityStatistics(Post.class.getName()).getLoadCount());
+    }
+
+    @Test
+    void updateComment_ShouldCostOneReadAndTheUpdate() {
+        CommentDTO request = new CommentDTO(0, "Editor", "editor@example.com", "Edited comment body");
+
+        commentService.updateComment(post.getId(), commentIds.get(0), request);
+        entityManager.flush();
+
+        assertEquals(1, statistics.getQueryExecutionCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityStatistics(Post.class.getName()).getLoadCount());
+        assertEquals("Edited comment body", entityManager.find(Comment.class, commentIds.get(0)).getBody());
+    }
+
+    @Test
+    void deleteComment_ShouldCostOneReadTheDeleteAndTheCountUpdate() {
+        commentService.deleteComment(post.getId(), commentIds.get(0));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(1, statistics.getQueryExecutionCount());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityStatistics(Post.class.getName()).getLoadCount());
+        assertEquals(COMMENTS - 1, entityManager.find(Post.class, post.getId()).getCommentCount());
+    }
+
+    @Test
+    void createComment_ShouldIncrementCommentCountInTheDatabase() {
+        CommentDTO request = new CommentDTO(0, "Reader", "reader@example.com", "Another comment body");
+
+        commentService.createComment(post.getId(), request);
+        entityManager.flush();
+        entityManager.clear();
+
+        // post lookup + comment insert + count update
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(COMMENTS + 1, entityManager.find(Post.class, post.getId()).getCommentCount());
+    }
+
+    @Test
+    void getCommentById_ShouldReportMissingPost() {
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> commentService.getCommentById(-1L, commentIds.get(0)));
+
+        assertEquals("post", exception.getResourceName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getCommentById_ShouldReportMissingComment() {
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> commentService.getCommentById(post.getId(), -1L));
+
+        assertEquals("comment", exception.getResourceName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getCommentById_ShouldReportCommentOfAnotherPost() {
+        Long otherPostsComment = commentIds.get(0) + 1;
+
+        BlogAPIException exception = assertThrows(BlogAPIException.class,
+                () -> commentService.getCommentById(post.getId(), otherPostsComment));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
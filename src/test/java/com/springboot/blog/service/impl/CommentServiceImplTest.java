@@ -1,27 +1,29 @@
 package com.springboot.blog.service.impl;
 
+import com.springboot.blog.cache.PostCache;
 import com.springboot.blog.entity.Comment;
 import com.springboot.blog.entity.Post;
 import com.springboot.blog.exception.BlogAPIException;
+import com.springboot.blog.exception.ResourceNotFoundException;
 import com.springboot.blog.payload.CommentDTO;
+import com.springboot.blog.payload.CommentResponse;
 import com.springboot.blog.repository.CommentRepository;
 import com.springboot.blog.repository.PostRepository;
+import com.springboot.blog.utils.AppConstants;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class CommentServiceImplTest {
@@ -30,7 +32,7 @@ public class CommentServiceImplTest {
     @Mock
     private PostRepository postRepository;
     @Mock
-    private ModelMapper mapper;
+    private PostCache postCache;
     @InjectMocks
     CommentServiceImpl commentService;
     private Comment comment;
@@ -62,58 +64,108 @@ public class CommentServiceImplTest {
     void testCreateComment_ShouldReturnCommentDTO_WhenValidInput(){
         when(postRepository.findById(1L)).thenReturn(Optional.of(post));
         when(commentRepository.save(any(Comment.class))).thenReturn(comment);
-        when(mapper.map(any(CommentDTO.class), eq(Comment.class))).thenReturn(comment);
-        when(mapper.map(any(Comment.class), eq(CommentDTO.class))).thenReturn(commentDTO);
 
         CommentDTO result=commentService.createComment(1L, commentDTO);
 
         assertEquals(commentDTO.getName(), result.getName());
         verify(commentRepository, times(1)).save(any(Comment.class));
+        verify(postRepository, times(1)).addToCommentCount(1L, 1);
+        verify(postCache, times(1)).evict(1L);
     }
 
     @Test
-    void testGetCommentsByPostId_ShouldReturnListOfComments() {
-        when(commentRepository.findByPostId(1L)).thenReturn(Arrays.asList(comment));
-        when(mapper.map(any(Comment.class), eq(CommentDTO.class))).thenReturn(commentDTO);
+    void testGetCommentsByPostId_ShouldReturnLastPage_whenNoMoreComments() {
+        when(commentRepository.findPageByPostId(1L, 0L, Limit.of(11))).thenReturn(new ArrayList<>(List.of(commentDTO)));
 
-        List<CommentDTO> result = commentService.getCommentsByPostId(1L);
+        CommentResponse result = commentService.getCommentsByPostId(1L, null, 10);
 
-        assertEquals(1, result.size());
-        assertEquals(commentDTO.getName(), result.get(0).getName());
+        assertEquals(1, result.getContent().size());
+        assertEquals(commentDTO.getName(), result.getContent().get(0).getName());
+        assertTrue(result.isLast());
+        assertNull(result.getNext());
+    }
+
+    @Test
+    void testGetCommentsByPostId_ShouldReturnNextCursor_whenMoreCommentsFollow() {
+        List<CommentDTO> comments = new ArrayList<>();
+        for (long id = 6; id <= 8; id++) {
+            comments.add(new CommentDTO(id, "Reader", "reader@example.com", "Comment body " + id));
+        }
+        when(commentRepository.findPageByPostId(1L, 5L, Limit.of(3))).thenReturn(comments);
+
+        CommentResponse result = commentService.getCommentsByPostId(1L, 5L, 2);
+
+        assertEquals(2, result.getContent().size());
+        assertFalse(result.isLast());
+        assertEquals(7L, result.getNext());
+    }
+
+    @Test
+    void testGetCommentsByPostId_ShouldCapPageSize() {
+        when(commentRepository.findPageByPostId(1L, 0L, Limit.of(AppConstants.MAX_COMMENT_PAGE_SIZE + 1))).thenReturn(new ArrayList<>());
+
+        CommentResponse result = commentService.getCommentsByPostId(1L, null, 10_000);
+
+        assertEquals(AppConstants.MAX_COMMENT_PAGE_SIZE, result.getPageSize());
+    }
+
+    @Test
+    void testGetCommentsByPostId_ShouldThrow_whenPageSizeIsNotPositive() {
+        BlogAPIException exception = assertThrows(BlogAPIException.class, () -> commentService.getCommentsByPostId(1L, null, 0));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
+    private static Optional<CommentRepository.CommentOfPost> commentOfPost(Long postId, Comment comment) {
+        return Optional.of(new CommentRepository.CommentOfPost() {
+            @Override
+            public Long getPostId() {
+                return postId;
+            }
+
+            @Override
+            public Comment getComment() {
+                return comment;
+            }
+
+            @Override
+            public Long getCommentPostId() {
+                return comment == null ? null : comment.getPost().getId();
+            }
+        });
     }
 
     @Test
     void testGetCommentById_ShouldReturnComment_WhenCommentBelongsToPost() {
-        when(postRepository.findById(1L)).thenReturn(Optional.of(post));
-        when(commentRepository.findById(1L)).thenReturn(Optional.of(comment));
-        when(mapper.map(any(Comment.class), eq(CommentDTO.class))).thenReturn(commentDTO);
+        when(commentRepository.findCommentOfPost(1L, 1L)).thenReturn(commentOfPost(1L, comment));
 
         CommentDTO result = commentService.getCommentById(1L, 1L);
 
         assertEquals(commentDTO.getName(), result.getName());
+        verifyNoInteractions(postRepository);
     }
 
     @Test
     void testUpdateComment_ShouldReturnUpdatedComment_WhenValidInput() {
-        when(postRepository.findById(1L)).thenReturn(Optional.of(post));
-        when(commentRepository.findById(1L)).thenReturn(Optional.of(comment));
+        when(commentRepository.findCommentOfPost(1L, 1L)).thenReturn(commentOfPost(1L, comment));
         when(commentRepository.save(any(Comment.class))).thenReturn(comment);
-        when(mapper.map(any(Comment.class), eq(CommentDTO.class))).thenReturn(commentDTO);
 
         CommentDTO result = commentService.updateComment(1L, 1L, commentDTO);
 
         assertEquals(commentDTO.getName(), result.getName());
         verify(commentRepository, times(1)).save(any(Comment.class));
+        verify(postCache, times(1)).evict(1L);
     }
 
     @Test
     void testDeleteComment_ShouldDeleteComment_WhenValidInput() {
-        when(postRepository.findById(1L)).thenReturn(Optional.of(post));
-        when(commentRepository.findById(1L)).thenReturn(Optional.of(comment));
+        when(commentRepository.findCommentOfPost(1L, 1L)).thenReturn(commentOfPost(1L, comment));
 
         commentService.deleteComment(1L, 1L);
 
         verify(commentRepository, times(1)).delete(comment);
+        verify(postRepository, times(1)).addToCommentCount(1L, -1);
+        verify(postCache, times(1)).evict(1L);
     }
 
     @Test
@@ -122,8 +174,7 @@ public class CommentServiceImplTest {
         anotherPost.setId(2L);
         comment.setPost(anotherPost);
 
-        when(postRepository.findById(1L)).thenReturn(Optional.of(post));
-        when(commentRepository.findById(1L)).thenReturn(Optional.of(comment));
+        when(commentRepository.findCommentOfPost(1L, 1L)).thenReturn(commentOfPost(1L, comment));
 
         BlogAPIException exception = assertThrows(BlogAPIException.class, () -> commentService.getCommentById(1L, 1L));
 
@@ -131,7 +182,27 @@ public class CommentServiceImplTest {
 
     }
 
-}
+    @Test
+    void testUpdateComment_ShouldThrowResourceNotFound_WhenPostDoesNotExist() {
+        when(commentRepository.findCommentOfPost(1L, 1L)).thenReturn(Optional.empty());
 
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> commentService.updateComment(1L, 1L, commentDTO));
 
+        assertEquals("post", exception.getResourceName());
+        verify(commentRepository, never()).save(any(Comment.class));
+    }
+
+    @Test
+    void testDeleteComment_ShouldThrowResourceNotFound_WhenCommentDoesNotExist() {
+        when(commentRepository.findCommentOfPost(1L, 1L)).thenReturn(commentOfPost(1L, null));
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> commentService.deleteComment(1L, 1L));
 
+        assertEquals("comment", exception.getResourceName());
+        verify(commentRepository, never()).delete(any(Comment.class));
+        verify(postRepository, never()).addToCommentCount(any(), anyLong());
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.springboot.blog.service.impl;
+
+import com.springboot.blog.cache.PostCache;
+import com.springboot.blog.cache.PostCountCache;
+import com.springboot.blog.entity.Category;
+import com.springboot.blog.entity.Comment;
+import com.springboot.blog.entity.Post;
+import com.springboot.blog.payload.CommentDTO;
+import com.springboot.blog.payload.PostDTO;
+import com.springboot.blog.payload.PostResponse;
+import com.springboot.blog.search.PostIndexer;
+import com.springboot.blog.search.PostSearchIndex;
+import com.springboot.blog.search.TitleSuggester;
+import com.springboot.blog.search.TrigramIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//counts the SQL statements the list paths issue against a real (H2) persistence context
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({PostServiceImpl.class, PostCache.class, PostServiceImplStatementCountTest.MetricsConfig.class})
+public class PostServiceImplStatementCountTest {
+    private static final int POSTS = 20;
+    private static final int COMMENTS_PER_POST = 3;
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockBean
+    private PostCountCache postCountCache;
+    @MockBean
+    private PostIndexer postIndexer;
+    @MockBean
+    private PostSearchIndex postSearchIndex;
+    @MockBean
+    private TitleSuggester titleSuggester;
+    @MockBean
+    private TrigramIndex trigramIndex;
+    @Autowired
+    private PostServiceImpl postService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Category category;
+    private Long firstPostId;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        category = new Category(null, "Tech", "Technology", null);
+        entityManager.persist(category);
+        for (int i = 0; i < POSTS; i++) {
+            Post post = new Post();
+            post.setTitle("Post " + i);
+            post.setDescription("Description " + i);
+            post.setContent("Searchable content " + i);
+            post.setCategory(category);
+            entityManager.persist(post);
+            if (i == 0) {
+                firstPostId = post.getId();
+            }
+            for (int j = 0; j < COMMENTS_PER_POST; j++) {
+                Comment comment = new Comment();
+                comment.setName("Reader");
+                comment.setEmail("reader@example.com");
+                comment.setBody("Comment " + i + "-" + j);
+                comment.setPost(post);
+                entityManager.persist(comment);
+            }
+        }
+        entityManager.flush();
+        // start every test with an empty persistence context so nothing is served from the first-level cache
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllPosts_ShouldLoadCommentsForTheWholePageInOneQuery() {
+        PostResponse postResponse = postService.getAllPosts(0, POSTS, "id", "asc");
+
+        assertEquals(POSTS, postResponse.getContent().size());
+        postResponse.getContent().forEach(post -> assertEquals(COMMENTS_PER_POST, post.getComments().size()));
+        // page query + count query + one query for the page's comments
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getPostsByCategory_ShouldNotLoadCommentsPerPost() {
+        List<PostDTO> posts = postService.getPostsByCategory(category.getId());
+
+        assertEquals(POSTS, posts.size());
+        posts.forEach(post -> assertEquals(COMMENTS_PER_POST, post.getComments().size()));
+        // category lookup + posts joined with their comments
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void searchPost_ShouldNotLoadCommentsPerPost() {
+        List<PostDTO> posts = postService.searchPost("Searchable");
+
+        assertEquals(POSTS, posts.size());
+        posts.forEach(post -> assertEquals(COMMENTS_PER_POST, post.getComments().size()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllPostsWithLatestComments_ShouldLoadNewestCommentsOfThePageInOneQuery() {
+        PostResponse postResponse = postService.getAllPostsWithLatestComments(0, POSTS, "id", "asc", 2);
+
+        assertEquals(POSTS, postResponse.getContent().size());
+        for (int i = 0; i < POSTS; i++) {
+            List<String> bodies = postResponse.getContent().get(i).getComments().stream().map(CommentDTO::getBody).toList();
+            assertEquals(List.of("Comment " + i + "-2", "Comment " + i + "-1"), bodies);
+        }
+        // page query + count query + one per-post limited query for the page's comments, no comment collection is loaded
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    void getAllPostsWithLatestComments_ShouldReturnEveryComment_whenAPostHasFewerThanTheLimit() {
+        PostResponse postResponse = postService.getAllPostsWithLatestComments(0, 2, "id", "asc", 5);
+
+        assertEquals(List.of("Comment 0-2", "Comment 0-1", "Comment 0-0"),
+                postResponse.getContent().get(0).getComments().stream().map(CommentDTO::getBody).toList());
+        assertEquals(COMMENTS_PER_POST, postResponse.getContent().get(1).getComments().size());
+    }
+
+    @Test
+    void getPostByIdWithLatestComments_ShouldNotLoadTheCommentCollection() {
+        PostDTO post = postService.getPostByIdWithLatestComments(firstPostId, 2);
+
+        assertEquals(List.of("Comment 0-2", "Comment 0-1"), post.getComments().stream().map(CommentDTO::getBody).toList());
+        // post + limited comment query
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+}
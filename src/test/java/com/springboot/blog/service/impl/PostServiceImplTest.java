@@ -1,28 +1,52 @@
 package com.springboot.blog.service.impl;
 
+import com.springboot.blog.cache.PostCache;
+import com.springboot.blog.cache.PostCountCache;
 import com.springboot.blog.entity.Category;
 import com.springboot.blog.entity.Post;
+import com.springboot.blog.exception.BlogAPIException;
 import com.springboot.blog.exception.ResourceNotFoundException;
+import com.springboot.blog.payload.CommentDTO;
 import com.springboot.blog.payload.PostDTO;
 import com.springboot.blog.payload.PostResponse;
 import com.springboot.blog.repository.CategoryRepository;
+import com.springboot.blog.repository.CommentRepository;
 import com.springboot.blog.repository.PostRepository;
+import com.springboot.blog.search.PostIndexer;
+import com.springboot.blog.search.PostSearchIndex;
+import com.springboot.blog.search.TitleSuggester;
+import com.springboot.blog.search.TrigramIndex;
+import com.springboot.blog.utils.AppConstants;
+import com.springboot.blog.utils.PostCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.modelmapper.ModelMapper;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpStatus;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,9 +56,21 @@ public class PostServiceImplTest {
     @Mock
     private PostRepository postRepository;
     @Mock
+    private CommentRepository commentRepository;
+    @Mock
     private CategoryRepository categoryRepository;
     @Mock
-    private ModelMapper mapper;
+    private PostCountCache postCountCache;
+    @Mock
+    private PostIndexer postIndexer;
+    @Mock
+    private PostSearchIndex postSearchIndex;
+    @Mock
+    private TitleSuggester titleSuggester;
+    @Mock
+    private TrigramIndex trigramIndex;
+    @Spy
+    private PostCache postCache = new PostCache(100, 60, new SimpleMeterRegistry());
 
     // Inject mocked dependencies into the service implementation
     @InjectMocks
@@ -52,7 +88,7 @@ public class PostServiceImplTest {
 
         // Sample data for tests
         category = new Category(1L, "Tech", "Technology related posts", null);
-        post = new Post(1L, "Post Title", "Post Description", "Post Content", null, category);
+        post = new Post(1L, "Post Title", "Post Description", "Post Content", null, category, 0, null);
         postDTO = new PostDTO();
         postDTO.setId(1L);
         postDTO.setTitle("Post Title");
@@ -64,11 +100,9 @@ public class PostServiceImplTest {
     // Test for creating a new post
     @Test
     void shouldCreatePost_whenCategoryExists() {
-        // Mocking behavior for the repository and mapper
+        // Mocking behavior for the repository
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
-        when(mapper.map(postDTO, Post.class)).thenReturn(post);
         when(postRepository.save(any(Post.class))).thenReturn(post);
-        when(mapper.map(post, PostDTO.class)).thenReturn(postDTO);
 
         // Calling the service method
         PostDTO createdPost = postService.createPost(postDTO);
@@ -80,13 +114,13 @@ public class PostServiceImplTest {
         // Verifying interactions with mocks
         verify(categoryRepository).findById(1L);
         verify(postRepository).save(any(Post.class));
+        verify(postIndexer).onSaved(post);
     }
 
     // Test for getting a post by ID
     @Test
     void shouldReturnPostById_whenPostExists() {
         when(postRepository.findById(1L)).thenReturn(Optional.of(post));
-        when(mapper.map(post, PostDTO.class)).thenReturn(postDTO);
 
         PostDTO foundPost = postService.getPostById(1L);
 
@@ -95,12 +129,67 @@ public class PostServiceImplTest {
         verify(postRepository).findById(1L);
     }
 
+    // Test for the latest comments view of a single post
+    @Test
+    void shouldReturnLatestCommentsAndCount_withoutLoadingAllComments() {
+        Post counted = new Post(1L, "Post Title", "Post Description", "Post Content", null, category, 42, null);
+        when(postRepository.findById(1L)).thenReturn(Optional.of(counted));
+        when(commentRepository.findLatestByPostId(1L, Limit.of(2))).thenReturn(List.of(
+                new CommentDTO(9L, "Reader", "reader@example.com", "Newest comment"),
+                new CommentDTO(8L, "Reader", "reader@example.com", "Older comment")));
+
+        PostDTO foundPost = postService.getPostByIdWithLatestComments(1L, 2);
+
+        assertEquals(List.of(9L, 8L), foundPost.getComments().stream().map(CommentDTO::getId).toList());
+        assertEquals(42L, foundPost.getCommentCount());
+    }
+
+    @Test
+    void shouldCapLatestComments_andRejectNegativeCounts() {
+        when(postRepository.findById(1L)).thenReturn(Optional.of(post));
+
+        postService.getPostByIdWithLatestComments(1L, 10_000);
+
+        verify(commentRepository).findLatestByPostId(1L, Limit.of(AppConstants.MAX_LATEST_COMMENTS));
+        assertThrows(BlogAPIException.class, () -> postService.getPostByIdWithLatestComments(1L, -1));
+    }
+
+    // Test for serving a repeated read from the post cache
+    @Test
+    void shouldServePostFromCache_whenReadTwice() {
+        when(postRepository.findById(1L)).thenReturn(Optional.of(post));
+
+        postService.getPostById(1L);
+        PostDTO cachedPost = postService.getPostById(1L);
+
+        assertEquals("Post Title", cachedPost.getTitle());
+        verify(postRepository, times(1)).findById(1L);
+        assertEquals(1, postCache.stats().hitCount());
+        assertEquals(1, postCache.stats().missCount());
+    }
+
+    // Test for invalidating the cached post on update
+    @Test
+    void shouldReloadPost_afterUpdate() {
+        when(postRepository.findById(1L)).thenReturn(Optional.of(post));
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+        when(postRepository.save(post)).thenReturn(post);
+
+        postService.getPostById(1L);
+        postService.updatePost(postDTO, 1L);
+        postService.getPostById(1L);
+
+        // one read per getPostById miss plus one for the update
+        verify(postRepository, times(3)).findById(1L);
+        verify(postCache).evict(1L);
+    }
+
     // Test for retrieving all posts with pagination
     @Test
     void shouldReturnAllPosts_whenPostsExist() {
         Page<Post> postPage = new PageImpl<>(Collections.singletonList(post));
         when(postRepository.findAll(any(Pageable.class))).thenReturn(postPage);
-        when(mapper.map(post, PostDTO.class)).thenReturn(postDTO);
+        when(postRepository.findWithCommentsByIdIn(List.of(1L))).thenReturn(Collections.singletonList(post));
 
         PostResponse postResponse = postService.getAllPosts(0, 10, "id", "asc");
 
@@ -109,6 +198,75 @@ public class PostServiceImplTest {
         assertEquals(0, postResponse.getPageNo());
         assertTrue(postResponse.getContent().stream().anyMatch(p -> p.getTitle().equals("Post Title")));
         verify(postRepository).findAll(any(Pageable.class));
+        verify(postRepository).findWithCommentsByIdIn(List.of(1L));
+    }
+
+    // Test for slice pagination reporting the approximate total instead of counting
+    @Test
+    void shouldReturnSliceWithApproximateTotal_whenTotalRequested() {
+        when(postRepository.findAllBy(any(Pageable.class))).thenReturn(new SliceImpl<>(Collections.singletonList(post), PageRequest.of(0, 1), true));
+        when(postRepository.findWithCommentsByIdIn(List.of(1L))).thenReturn(Collections.singletonList(post));
+        when(postCountCache.get()).thenReturn(3L);
+
+        PostResponse postResponse = postService.getAllPostsSlice(0, 1, "id", "asc", true);
+
+        assertEquals(1, postResponse.getContent().size());
+        assertFalse(postResponse.isLast());
+        assertEquals(3L, postResponse.getTotalElements());
+        assertEquals(3, postResponse.getTotalPages());
+        assertTrue(postResponse.getApproximateTotal());
+        verify(postRepository, never()).count();
+        verify(postRepository, never()).findAll(any(Pageable.class));
+    }
+
+    // Test for keyset pagination returning an opaque cursor to the next page
+    @Test
+    void shouldReturnNextCursor_whenMorePostsExist() {
+        Window<Post> window = Window.from(Collections.singletonList(post), i -> ScrollPosition.forward(Map.of("title", "Post Title", "id", 1L)), true);
+        when(postRepository.findBy(any(ScrollPosition.class), any(Sort.class), any(Limit.class))).thenReturn(window);
+        when(postRepository.findWithCommentsByIdIn(List.of(1L))).thenReturn(Collections.singletonList(post));
+
+        PostResponse postResponse = postService.getPostsByCursor(null, 1, "title", "asc");
+
+        assertEquals(1, postResponse.getContent().size());
+        assertFalse(postResponse.isLast());
+        assertNull(postResponse.getTotalElements());
+        PostCursor next = PostCursor.decode(postResponse.getNext());
+        assertEquals("title", next.getSortBy());
+        assertEquals(1L, next.getKeys().get("id"));
+    }
+
+    // Test for rejecting cursors that were tampered with or issued for another sort
+    @Test
+    void shouldRejectCursor_whenTamperedOrForAnotherSort() {
+        String unknownField = new PostCursor("password", "asc", Map.of("password", "x", "id", 1L)).encode();
+        String missingId = new PostCursor("title", "asc", Map.of("title", "Post Title")).encode();
+        String extraKey = new PostCursor("title", "asc", Map.of("title", "Post Title", "id", 1L, "commentCount", 2L)).encode();
+        String wrongType = new PostCursor("id", "asc", Map.of("id", "not-a-number")).encode();
+        String otherSort = new PostCursor("title", "asc", Map.of("title", "Post Title", "id", 1L)).encode();
+
+        for (String cursor : List.of("not base64!", unknownField, missingId, extraKey, wrongType)) {
+            BlogAPIException exception = assertThrows(BlogAPIException.class, () -> postService.getPostsByCursor(cursor, 10, "id", "asc"));
+            assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        }
+        BlogAPIException mismatch = assertThrows(BlogAPIException.class, () -> postService.getPostsByCursor(otherSort, 10, "id", "asc"));
+        assertEquals(HttpStatus.BAD_REQUEST, mismatch.getStatus());
+        BlogAPIException unsortable = assertThrows(BlogAPIException.class, () -> postService.getPostsByCursor(null, 10, "comments", "asc"));
+        assertEquals(HttpStatus.BAD_REQUEST, unsortable.getStatus());
+        verify(postRepository, never()).findBy(any(ScrollPosition.class), any(Sort.class), any(Limit.class));
+    }
+
+    // Test for validating and capping the cursor page size
+    @Test
+    void shouldRejectEmptyCursorPage_andCapLargeOnes() {
+        when(postRepository.findBy(any(ScrollPosition.class), any(Sort.class), any(Limit.class))).thenReturn(Window.from(List.of(), ScrollPosition::offset));
+
+        BlogAPIException exception = assertThrows(BlogAPIException.class, () -> postService.getPostsByCursor(null, 0, "id", "asc"));
+        PostResponse postResponse = postService.getPostsByCursor(null, 10_000, "id", "asc");
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        assertEquals(AppConstants.MAX_CURSOR_PAGE_SIZE, postResponse.getPageSize());
+        verify(postRepository).findBy(any(ScrollPosition.class), any(Sort.class), eq(Limit.of(AppConstants.MAX_CURSOR_PAGE_SIZE)));
     }
 
     // Test for updating an existing post
@@ -116,9 +274,7 @@ public class PostServiceImplTest {
     void shouldUpdatePost_whenPostExists() {
         when(postRepository.findById(1L)).thenReturn(Optional.of(post));
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
-        when(mapper.map(postDTO, Post.class)).thenReturn(post);
         when(postRepository.save(post)).thenReturn(post);
-        when(mapper.map(post, PostDTO.class)).thenReturn(postDTO);
 
         PostDTO updatedPost = postService.updatePost(postDTO, 1L);
 
@@ -135,6 +291,7 @@ public class PostServiceImplTest {
         postService.deletePostById(1L);
 
         verify(postRepository).delete(post);
+        verify(postIndexer).onDeleted(1L);
     }
 
     // Test for getting posts by category
@@ -142,7 +299,6 @@ public class PostServiceImplTest {
     void shouldReturnPostsByCategory_whenCategoryExists() {
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
         when(postRepository.findByCategoryId(1L)).thenReturn(Collections.singletonList(post));
-        when(mapper.map(post, PostDTO.class)).thenReturn(postDTO);
 
         List<PostDTO> posts = postService.getPostsByCategory(1L);
 
@@ -152,6 +308,133 @@ public class PostServiceImplTest {
         verify(postRepository).findByCategoryId(1L);
     }
 
+    // Test for searching through the in-memory index instead of the LIKE query
+    @Test
+    void shouldSearchThroughIndex_whenIndexAvailable() {
+        when(postSearchIndex.isAvailable()).thenReturn(true);
+        when(postSearchIndex.getMaxResults()).thenReturn(100);
+        when(postSearchIndex.search("post", 2)).thenReturn(List.of(2L, 1L));
+        when(postRepository.findWithCommentsByIdIn(List.of(1L))).thenReturn(Collections.singletonList(post));
+
+        List<PostDTO> posts = postService.searchPost("post", 1, 1);
+
+        assertEquals(1, posts.size());
+        assertEquals(1L, posts.get(0).getId());
+        verify(postRepository, never()).searchPost(any());
+    }
+
+    // Test for paging search summaries through the index
+    @Test
+    void shouldPageSearchSummaries_whenIndexAvailable() {
+        PostDTO summary = new PostDTO(1L, "Post Title", "Post Description", 1L, 0L);
+        when(postSearchIndex.isAvailable()).thenReturn(true);
+        when(postSearchIndex.getMaxResults()).thenReturn(100);
+        when(postSearchIndex.search("post", 2)).thenReturn(List.of(2L, 1L));
+        when(postRepository.findSummariesByIdIn(List.of(1L))).thenReturn(Collections.singletonList(summary));
+
+        List<PostDTO> posts = postService.searchPostSummaries("post", 1, 1);
+
+        assertEquals(List.of(summary), posts);
+        verify(postRepository, never()).searchPostSummaries(any());
+    }
+
+    // Test for substring search through the trigram index
+    @Test
+    void shouldSearchThroughTrigramIndex_whenSubstringModeAvailable() {
+        when(trigramIndex.isAvailable()).thenReturn(true);
+        when(trigramIndex.supports("ost")).thenReturn(true);
+        when(trigramIndex.getMaxResults()).thenReturn(100);
+        when(trigramIndex.search("ost", 101)).thenReturn(List.of(1L));
+        when(postRepository.findWithCommentsByIdIn(List.of(1L))).thenReturn(Collections.singletonList(post));
+
+        List<PostDTO> posts = postService.searchPost("ost");
+
+        assertEquals(1, posts.size());
+        verify(postRepository, never()).searchPost(any());
+    }
+
+    // Test for rejecting search pages that cannot be served
+    @Test
+    void shouldRejectSearchPage_whenPageInvalid() {
+        BlogAPIException negativePage = assertThrows(BlogAPIException.class, () -> postService.searchPost("post", -1, 10));
+        BlogAPIException emptyPage = assertThrows(BlogAPIException.class, () -> postService.searchPostSummaries("post", 0, 0));
+
+        assertEquals(HttpStatus.BAD_REQUEST, negativePage.getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, emptyPage.getStatus());
+        verify(postRepository, never()).searchPost(any());
+    }
+
+    // Test for rejecting search results cut off at max-results instead of returning them as complete
+    @Test
+    void shouldRejectSearchPage_whenMoreHitsThanMaxResults() {
+        when(postSearchIndex.isAvailable()).thenReturn(true);
+        when(postSearchIndex.getMaxResults()).thenReturn(2);
+        when(postSearchIndex.search("post", 3)).thenReturn(List.of(1L, 2L, 3L));
+        when(postSearchIndex.search("post", 1)).thenReturn(List.of(1L));
+        when(postRepository.findWithCommentsByIdIn(List.of(1L))).thenReturn(Collections.singletonList(post));
+
+        BlogAPIException pastCap = assertThrows(BlogAPIException.class, () -> postService.searchPost("post", 1, 2));
+
+        assertEquals(HttpStatus.BAD_REQUEST, pastCap.getStatus());
+        assertEquals(1, postService.searchPost("post", 0, 1).size());
+    }
+
+    // Test for an unpaged search returning the top max-results hits when more posts match
+    @Test
+    void shouldReturnTopHits_whenUnpagedAndMoreHitsThanMaxResults() {
+        Post second = new Post(2L, "Second Post", "Post Description", "Post Content", null, category, 0, null);
+        when(postSearchIndex.isAvailable()).thenReturn(true);
+        when(postSearchIndex.getMaxResults()).thenReturn(2);
+        when(postSearchIndex.search("post", 3)).thenReturn(List.of(2L, 1L, 3L));
+        when(postRepository.findWithCommentsByIdIn(List.of(2L, 1L))).thenReturn(List.of(post, second));
+        when(postRepository.findSummariesByIdIn(List.of(2L, 1L))).thenReturn(List.of(
+                new PostDTO(1L, "Post Title", "Post Description", 1L, 0L), new PostDTO(2L, "Second Post", "Post Description", 1L, 0L)));
+
+        List<PostDTO> posts = postService.searchPost("post");
+        List<PostDTO> summaries = postService.searchPostSummaries("post");
+
+        assertEquals(List.of(2L, 1L), posts.stream().map(PostDTO::getId).toList());
+        assertEquals(List.of(2L, 1L), summaries.stream().map(PostDTO::getId).toList());
+    }
+
+    // Test for pages reaching past max-results when fewer posts match
+    @Test
+    void shouldReturnSearchPage_whenHitsFitUnderMaxResults() {
+        when(trigramIndex.isAvailable()).thenReturn(true);
+        when(trigramIndex.supports("ost")).thenReturn(true);
+        when(trigramIndex.getMaxResults()).thenReturn(2);
+        when(trigramIndex.search("ost", 3)).thenReturn(List.of(1L));
+        when(postRepository.findWithCommentsByIdIn(List.of(1L))).thenReturn(Collections.singletonList(post));
+
+        List<PostDTO> posts = postService.searchPost("ost", 0, 5);
+
+        assertEquals(1, posts.size());
+    }
+
+    // Test for keywords the trigram index cannot answer falling back to the LIKE query
+    @Test
+    void shouldSearchWithSql_whenKeywordTooShortForTrigrams() {
+        when(trigramIndex.isAvailable()).thenReturn(true);
+        when(trigramIndex.supports("po")).thenReturn(false);
+        when(postRepository.searchPost("po")).thenReturn(Collections.singletonList(post));
+
+        List<PostDTO> posts = postService.searchPost("po");
+
+        assertEquals(1, posts.size());
+        verify(trigramIndex, never()).search(any(), anyInt());
+    }
+
+    // Test for capping the number of title suggestions
+    @Test
+    void shouldCapSuggestions_whenLimitTooLarge() {
+        when(titleSuggester.suggest("po", 50)).thenReturn(List.of("Post Title"));
+
+        List<String> suggestions = postService.suggestTitles("po", 1000);
+
+        assertEquals(List.of("Post Title"), suggestions);
+        verify(titleSuggester).suggest("po", 50);
+    }
+
     // Test for creating a post when the category is not found
     @Test
     void shouldThrowException_whenCategoryNotFoundWhileCreatingPost() {